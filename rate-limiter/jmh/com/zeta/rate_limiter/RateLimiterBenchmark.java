@@ -0,0 +1,136 @@
+package com.zeta.rate_limiter;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures allowRequest throughput and latency distribution across algorithms, key distributions and key
+ * cardinalities. Thread count is chosen on the command line with -t, allocation per op with -prof gc.
+ *
+ * Every key is touched once during setup so the measurement sees steady-state lookups rather than inserts.
+ * Requests follow a precomputed sequence of key indices that each thread walks from a random offset, so no
+ * random number generation or string building happens inside the measured call.
+ *
+ * The heap is left to the command line: the 10M-key runs need a large one, see the README.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class RateLimiterBenchmark {
+
+    private static final int SEQUENCE_LENGTH = 1 << 22;
+    private static final int SEQUENCE_MASK = SEQUENCE_LENGTH - 1;
+    // YCSB's default skew: a few keys take most of the traffic, with a long tail.
+    private static final double ZIPF_EXPONENT = 0.99;
+
+    public enum Algorithm {
+        FIXED_WINDOW, TOKEN_BUCKET, LOCK_FREE_TOKEN_BUCKET, SLIDING_WINDOW, GCRA;
+
+        // 1000 requests per second per key, with a burst of up to 1000.
+        RateLimiter create() {
+            return switch (this) {
+                case FIXED_WINDOW -> new FixedWindowRateLimiter(1_000, 1_000);
+                case TOKEN_BUCKET -> new TokenBucketRateLimiter(1_000, 1_000);
+                case LOCK_FREE_TOKEN_BUCKET -> new LockFreeTokenBucketRateLimiter(1_000, 1_000);
+                case SLIDING_WINDOW -> new SlidingWindowRateLimiter(1_000, 1_000);
+                case GCRA -> new GcraRateLimiter(1_000, 1_000);
+            };
+        }
+    }
+
+    public enum Distribution {
+        HOT_KEY, UNIFORM, ZIPFIAN
+    }
+
+    @Param({"FIXED_WINDOW", "TOKEN_BUCKET", "LOCK_FREE_TOKEN_BUCKET", "SLIDING_WINDOW", "GCRA"})
+    public Algorithm algorithm;
+
+    @Param({"HOT_KEY", "UNIFORM", "ZIPFIAN"})
+    public Distribution distribution;
+
+    @Param({"1000", "100000", "10000000"})
+    public int keyCount;
+
+    private RateLimiter limiter;
+    private String[] keys;
+    private int[] sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        limiter = algorithm.create();
+        keys = new String[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            keys[i] = "user-" + i;
+            limiter.allowRequest(keys[i]);
+        }
+        sequence = buildSequence(new Random(42));
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            next = ThreadLocalRandom.current().nextInt(SEQUENCE_LENGTH);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public boolean throughput(Cursor cursor) {
+        return limiter.allowRequest(keys[sequence[cursor.next++ & SEQUENCE_MASK]]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public boolean latency(Cursor cursor) {
+        return limiter.allowRequest(keys[sequence[cursor.next++ & SEQUENCE_MASK]]);
+    }
+
+    private int[] buildSequence(Random random) {
+        int[] indices = new int[SEQUENCE_LENGTH];
+        switch (distribution) {
+            case HOT_KEY -> Arrays.fill(indices, 0);
+            case UNIFORM -> Arrays.setAll(indices, i -> random.nextInt(keyCount));
+            case ZIPFIAN -> {
+                double[] cumulative = zipfCumulativeWeights();
+                double total = cumulative[keyCount - 1];
+                Arrays.setAll(indices, i -> {
+                    int rank = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+                    return Math.min(rank < 0 ? -rank - 1 : rank, keyCount - 1);
+                });
+            }
+        }
+        return indices;
+    }
+
+    //cumulative[k] = sum over ranks 1..k+1 of 1 / rank^ZIPF_EXPONENT
+    private double[] zipfCumulativeWeights() {
+        double[] cumulative = new double[keyCount];
+        double sum = 0;
+        for (int k = 0; k < keyCount; k++) {
+            sum += 1 / Math.pow(k + 1, ZIPF_EXPONENT);
+            cumulative[k] = sum;
+        }
+        return cumulative;
+    }
+}
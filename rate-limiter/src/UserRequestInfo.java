@@ -1,9 +0,0 @@
-public class UserRequestInfo {
-    long window;
-    int count;
-
-    UserRequestInfo(long window) {
-        this.window = window;
-        this.count = 0;
-    }
-}
\ No newline at end of file
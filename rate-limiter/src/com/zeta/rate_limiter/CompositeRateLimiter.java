@@ -0,0 +1,82 @@
+package com.zeta.rate_limiter;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * CompositeRateLimiter enforces several limits at once, for example per user, per tenant and a global ceiling,
+ * and charges a request to all of them or to none.
+ *
+ * Each tier is a {@link GcraRateLimiter} plus a function mapping the user ID to that tier's key. A request is
+ * first checked read-only against every tier, so the common deny consumes nothing. It is then committed tier by
+ * tier with compare-and-set; when every tier has headroom that is all it costs, without any lock. If a
+ * concurrent request used up a tier between check and commit, the tiers already charged are refunded, so a
+ * request denied by the global tier never keeps the user's or tenant's permits.
+ */
+public class CompositeRateLimiter implements RateLimiter {
+
+    private final Tier[] tiers;
+
+    public CompositeRateLimiter(List<Tier> tiers) {
+        if (tiers.isEmpty()) {
+            throw new IllegalArgumentException("at least one tier is required");
+        }
+        this.tiers = tiers.toArray(new Tier[0]);
+    }
+
+    @Override
+    public boolean tryAcquire(String userId, int permits) {
+        RateLimiter.checkPermits(permits);
+        String[] keys = new String[tiers.length];
+        for (int i = 0; i < tiers.length; i++) {
+            keys[i] = tiers[i].keyFor.apply(userId);
+            if (tiers[i].limiter.retryAfterNanos(keys[i], permits) > 0) {
+                return false;
+            }
+        }
+        for (int i = 0; i < tiers.length; i++) {
+            if (!tiers[i].limiter.tryAcquire(keys[i], permits)) {
+                // Lost a race for this tier's last permits; undo the tiers already charged.
+                for (int j = i - 1; j >= 0; j--) {
+                    tiers[j].limiter.refund(keys[j], permits);
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //The request has to wait for its most constrained tier.
+    @Override
+    public long retryAfterNanos(String userId, int permits) {
+        RateLimiter.checkPermits(permits);
+        long retryAfterNanos = 0;
+        for (Tier tier : tiers) {
+            retryAfterNanos = Math.max(retryAfterNanos, tier.limiter.retryAfterNanos(tier.keyFor.apply(userId), permits));
+        }
+        return retryAfterNanos;
+    }
+
+    /**
+     * One level of the hierarchy: the limit to apply and how to derive the key it is counted under.
+     */
+    public record Tier(String name, GcraRateLimiter limiter, Function<String, String> keyFor) {
+
+        private static final String GLOBAL_KEY = "*";
+
+        //Each user is limited separately.
+        public static Tier perUser(GcraRateLimiter limiter) {
+            return new Tier("user", limiter, Function.identity());
+        }
+
+        //Users are limited together per group, for example their tenant.
+        public static Tier perGroup(String name, GcraRateLimiter limiter, Function<String, String> groupOf) {
+            return new Tier(name, limiter, groupOf);
+        }
+
+        //All users share one limit.
+        public static Tier global(GcraRateLimiter limiter) {
+            return new Tier("global", limiter, userId -> GLOBAL_KEY);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.zeta.rate_limiter;
+
+/**
+ * EvictableState is the base for per-user limiter state held in an {@link EvictingStateMap}.
+ * Both fields are guarded by the state's own monitor, the same lock the limiters already take.
+ */
+public abstract class EvictableState {
+    long lastAccessMillis;
+    // Set once the entry has been removed from its map; holders must look the user up again.
+    boolean evicted;
+
+    protected EvictableState(long lastAccessMillis) {
+        this.lastAccessMillis = lastAccessMillis;
+    }
+}
@@ -0,0 +1,128 @@
+package com.zeta.rate_limiter;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * EvictingStateMap holds per-user limiter state and expires idle users so the map cannot grow without bound.
+ *
+ * Eviction is an amortized sweep piggybacked on lookups: roughly one lookup in SWEEP_INTERVAL walks the next
+ * SWEEP_BATCH entries and removes those idle for at least idleTimeoutMillis. Only one thread sweeps at a time,
+ * and others never wait for it, so no global lock is added to the hot path. Entries are evicted under their own
+ * monitor and flagged, so a request that raced with eviction retries against a fresh entry instead of updating
+ * a detached one. Limiters pick an idle timeout after which their state is equivalent to a fresh entry, which
+ * makes eviction invisible to callers.
+ *
+ * maxKeys is a hard bound: a new key reserves a place in keyCount before its entry is inserted, and gives it
+ * back when the entry is evicted, so concurrent first requests cannot push the map past the limit.
+ */
+public class EvictingStateMap<S extends EvictableState> {
+
+    static final int SWEEP_INTERVAL = 1024;
+    static final int SWEEP_BATCH = 64;
+
+    private final ConcurrentHashMap<String, S> states = new ConcurrentHashMap<>();
+    private final long idleTimeoutMillis;
+    private final long maxKeys;
+    private final KeyOverflowPolicy overflowPolicy;
+    // Entries in the map plus those being inserted; never exceeds maxKeys.
+    private final AtomicLong keyCount = new AtomicLong();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    // Cursor of the incremental sweep; only touched by the thread holding the sweeping flag.
+    private Iterator<Map.Entry<String, S>> sweepCursor;
+
+    public EvictingStateMap(long idleTimeoutMillis, long maxKeys, KeyOverflowPolicy overflowPolicy) {
+        if (maxKeys < 1) {
+            throw new IllegalArgumentException("maxKeys must be positive");
+        }
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.maxKeys = maxKeys;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    //Returns the user's state, creating it if needed, or null if the map is full and the user is not tracked.
+    public S getOrCreate(String userId, long currentTimeMillis, Function<String, S> factory) {
+        if (ThreadLocalRandom.current().nextInt(SWEEP_INTERVAL) == 0) {
+            trySweep(currentTimeMillis, SWEEP_BATCH);
+        }
+        S state = states.get(userId);
+        if (state != null) {
+            return state;
+        }
+        if (keyCount.get() >= maxKeys) {
+            // Make room from idle users before falling back to the overflow policy.
+            trySweep(currentTimeMillis, SWEEP_BATCH);
+        }
+        // Reserved inside the mapping function, so only the thread that inserts the entry takes a place.
+        // Returning null leaves the user untracked.
+        return states.computeIfAbsent(userId, id -> {
+            if (!reserveKey()) {
+                return null;
+            }
+            try {
+                return factory.apply(id);
+            } catch (RuntimeException | Error e) {
+                keyCount.decrementAndGet();
+                throw e;
+            }
+        });
+    }
+
+    //Returns the user's state without creating it, or null if the user is not tracked.
+    public S get(String userId) {
+        return states.get(userId);
+    }
+
+    //Result to report for a request whose user could not be tracked because the map is full.
+    public boolean allowUntracked() {
+        return overflowPolicy == KeyOverflowPolicy.ALLOW_UNTRACKED;
+    }
+
+    public long size() {
+        return states.mappingCount();
+    }
+
+    private boolean reserveKey() {
+        long count;
+        do {
+            count = keyCount.get();
+            if (count >= maxKeys) {
+                return false;
+            }
+        } while (!keyCount.compareAndSet(count, count + 1));
+        return true;
+    }
+
+    private void trySweep(long currentTimeMillis, int batch) {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            for (int i = 0; i < batch; i++) {
+                if (sweepCursor == null || !sweepCursor.hasNext()) {
+                    sweepCursor = states.entrySet().iterator();
+                    if (!sweepCursor.hasNext()) {
+                        return;
+                    }
+                }
+                Map.Entry<String, S> entry = sweepCursor.next();
+                S state = entry.getValue();
+                synchronized (state) {
+                    if (!state.evicted && currentTimeMillis - state.lastAccessMillis >= idleTimeoutMillis) {
+                        state.evicted = true;
+                        if (states.remove(entry.getKey(), state)) {
+                            keyCount.decrementAndGet();
+                        }
+                    }
+                }
+            }
+        } finally {
+            sweeping.set(false);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.zeta.rate_limiter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FixedWindowRateLimiter implements a simple fixed window counter algorithm.
+ * It limits each user to a maximum number of requests within a defined window.
+ */
+public class FixedWindowRateLimiter implements RateLimiter {
+
+    private final int maxRequests;
+    private final long windowTimeMillis;
+    // Map to store per-user request information. Users idle for a whole window are evicted, since their
+    // next request would reset the counter anyway.
+    private final EvictingStateMap<UserRequestInfo> userRequestMap;
+    private final RateLimiterClock clock;
+
+    public FixedWindowRateLimiter(int maxRequests, long windowTimeMillis) {
+        this(maxRequests, windowTimeMillis, Long.MAX_VALUE, KeyOverflowPolicy.DENY_NEW_KEYS, RateLimiterClock.MONOTONIC);
+    }
+
+    public FixedWindowRateLimiter(int maxRequests, long windowTimeMillis, long maxKeys, KeyOverflowPolicy overflowPolicy) {
+        this(maxRequests, windowTimeMillis, maxKeys, overflowPolicy, RateLimiterClock.MONOTONIC);
+    }
+
+    public FixedWindowRateLimiter(int maxRequests, long windowTimeMillis, long maxKeys, KeyOverflowPolicy overflowPolicy,
+                                  RateLimiterClock clock) {
+        this.maxRequests = maxRequests;
+        this.windowTimeMillis = windowTimeMillis;
+        this.userRequestMap = new EvictingStateMap<>(windowTimeMillis, maxKeys, overflowPolicy);
+        this.clock = clock;
+    }
+
+    //Checks if the specified user may make a request costing the given number of permits.
+    @Override
+    public boolean tryAcquire(String userId, int permits) {
+        RateLimiter.checkPermits(permits);
+        return tryAcquire(userId, permits, clock.millis());
+    }
+
+    //Decides the whole batch against a single reading of the clock.
+    @Override
+    public boolean[] tryAcquireAll(String[] userIds, int[] permits) {
+        RateLimiter.checkBatch(userIds, permits);
+        long currentTimeMillis = clock.millis();
+        boolean[] granted = new boolean[userIds.length];
+        for (int i = 0; i < userIds.length; i++) {
+            granted[i] = tryAcquire(userIds[i], permits[i], currentTimeMillis);
+        }
+        return granted;
+    }
+
+    //A user over the limit has to wait for the next window.
+    @Override
+    public long retryAfterNanos(String userId, int permits) {
+        RateLimiter.checkPermits(permits);
+        if (permits > maxRequests) {
+            return Long.MAX_VALUE;
+        }
+        long currentTimeMillis = clock.millis();
+        long currentWindow = Math.floorDiv(currentTimeMillis, windowTimeMillis);
+        UserRequestInfo info = userRequestMap.get(userId);
+        if (info == null) {
+            return 0;
+        }
+        synchronized (info) {
+            if (info.evicted || info.window != currentWindow || info.count <= maxRequests - permits) {
+                return 0;
+            }
+        }
+        return TimeUnit.MILLISECONDS.toNanos((currentWindow + 1) * windowTimeMillis - currentTimeMillis);
+    }
+
+    private boolean tryAcquire(String userId, int permits, long currentTimeMillis) {
+        // Determine the current window based on the configured window duration.
+        long currentWindow = Math.floorDiv(currentTimeMillis, windowTimeMillis);
+
+        while (true) {
+            // Get or create the user's request info.
+            UserRequestInfo info = userRequestMap.getOrCreate(userId, currentTimeMillis,
+                    id -> new UserRequestInfo(currentWindow, currentTimeMillis));
+            if (info == null) {
+                return userRequestMap.allowUntracked();
+            }
+
+            // Synchronize on the user's info to handle concurrent requests.
+            synchronized (info) {
+                if (info.evicted) {
+                    // Evicted while we were waiting for the lock; retry with a fresh entry.
+                    continue;
+                }
+                info.lastAccessMillis = currentTimeMillis;
+                if (info.window != currentWindow) {
+                    // New window: reset the counter.
+                    info.window = currentWindow;
+                    info.count = 0;
+                }
+                if (info.count <= maxRequests - permits) {
+                    info.count += permits;
+                    return true;
+                } else {
+                    return false;
+                }
+            }
+        }
+    }
+}
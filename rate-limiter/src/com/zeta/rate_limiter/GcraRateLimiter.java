@@ -0,0 +1,147 @@
+package com.zeta.rate_limiter;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * GcraRateLimiter implements the generic cell rate algorithm, which behaves like a token bucket with the same
+ * capacity and refill rate but keeps a single long per user: the theoretical arrival time (TAT) at which the
+ * user's bucket would be full again. A request for n permits is allowed when pushing the TAT n emission
+ * intervals further keeps it within capacity intervals of now; the TAT is advanced with compare-and-set.
+ *
+ * All per-request arithmetic is on long nanoseconds, and on deny the excess over the limit is exactly how
+ * long the caller has to wait, which {@link #tryAcquireOrRetryAfter} reports.
+ *
+ * The TAT lives in a ConcurrentHashMap of AtomicLong by default, or in a {@link PackedStateStore}.
+ */
+public class GcraRateLimiter implements RateLimiter {
+
+    private final long capacity;                // Maximum burst, in permits
+    private final long emissionIntervalNanos;   // Time to refill one permit
+    private final long burstToleranceNanos;     // capacity * emissionIntervalNanos
+    private final RateLimiterClock clock;
+    // Backdated by 1ns so a TAT is never 0, which a PackedStateStore reserves for "no state yet".
+    private final long startNanos;
+    private final ConcurrentHashMap<String, AtomicLong> userArrivalTimes = new ConcurrentHashMap<>();
+    private final PackedStateStore arrivalTable;   // Used instead of userArrivalTimes when not null
+
+    //Constructs a GcraRateLimiter allowing bursts of capacity permits, refilled at refillRate per second.
+    public GcraRateLimiter(long capacity, double refillRate) {
+        this(capacity, refillRate, null);
+    }
+
+    //Constructs a GcraRateLimiter whose arrival times are kept in the given table.
+    public GcraRateLimiter(long capacity, double refillRate, PackedStateStore arrivalTable) {
+        this(capacity, refillRate, arrivalTable, RateLimiterClock.MONOTONIC);
+    }
+
+    public GcraRateLimiter(long capacity, double refillRate, PackedStateStore arrivalTable, RateLimiterClock clock) {
+        if (capacity < 1 || refillRate <= 0) {
+            throw new IllegalArgumentException("capacity and refillRate must be positive");
+        }
+        this.capacity = capacity;
+        this.emissionIntervalNanos = Math.max(1, Math.round(1_000_000_000.0 / refillRate));
+        if (emissionIntervalNanos > Long.MAX_VALUE / 4 / capacity) {
+            throw new IllegalArgumentException("capacity / refillRate is too large");
+        }
+        this.burstToleranceNanos = capacity * emissionIntervalNanos;
+        this.arrivalTable = arrivalTable;
+        this.clock = clock;
+        this.startNanos = (arrivalTable != null ? arrivalTable.originNanos(clock) : clock.nanoTime()) - 1;
+    }
+
+    @Override
+    public boolean tryAcquire(String userId, int permits) {
+        return tryAcquireOrRetryAfter(userId, permits) == 0;
+    }
+
+    /**
+     * Takes the permits if they are available and returns 0; otherwise takes nothing and returns how many
+     * nanoseconds to wait before asking again, or Long.MAX_VALUE if the permits can never be granted.
+     */
+    public long tryAcquireOrRetryAfter(String userId, int permits) {
+        RateLimiter.checkPermits(permits);
+        if (permits > capacity) {
+            return Long.MAX_VALUE;
+        }
+        long nowNanos = clock.nanoTime() - startNanos;
+        long costNanos = permits * emissionIntervalNanos;
+        if (arrivalTable != null) {
+            int slot = arrivalTable.slotOf(userId);
+            if (slot < 0) {
+                return arrivalTable.allowUntracked() ? 0 : Long.MAX_VALUE;
+            }
+            while (true) {
+                long tat = arrivalTable.get(slot);
+                long newTat = Math.max(tat, nowNanos) + costNanos;
+                long excessNanos = newTat - nowNanos - burstToleranceNanos;
+                if (excessNanos > 0) {
+                    return excessNanos;
+                }
+                if (arrivalTable.compareAndSet(slot, tat, newTat)) {
+                    return 0;
+                }
+            }
+        }
+        AtomicLong arrivalTime = userArrivalTimes.computeIfAbsent(userId, id -> new AtomicLong(nowNanos));
+        while (true) {
+            long tat = arrivalTime.get();
+            long newTat = Math.max(tat, nowNanos) + costNanos;
+            long excessNanos = newTat - nowNanos - burstToleranceNanos;
+            if (excessNanos > 0) {
+                return excessNanos;
+            }
+            if (arrivalTime.compareAndSet(tat, newTat)) {
+                return 0;
+            }
+            // Lost the race to another thread; reload and retry.
+        }
+    }
+
+    /**
+     * Gives back permits granted by an earlier successful acquire, moving the arrival time back by their cost.
+     * Used by {@link CompositeRateLimiter} to roll back a tier when a later tier denies the request.
+     */
+    void refund(String userId, int permits) {
+        long costNanos = permits * emissionIntervalNanos;
+        if (arrivalTable != null) {
+            int slot = arrivalTable.slotOf(userId);
+            if (slot < 0) {
+                return;
+            }
+            long tat;
+            do {
+                tat = arrivalTable.get(slot);
+            } while (!arrivalTable.compareAndSet(slot, tat, tat - costNanos));
+            return;
+        }
+        AtomicLong arrivalTime = userArrivalTimes.get(userId);
+        if (arrivalTime != null) {
+            arrivalTime.addAndGet(-costNanos);
+        }
+    }
+
+    //Exact: the arrival time only moves when permits are granted.
+    @Override
+    public long retryAfterNanos(String userId, int permits) {
+        RateLimiter.checkPermits(permits);
+        if (permits > capacity) {
+            return Long.MAX_VALUE;
+        }
+        long nowNanos = clock.nanoTime() - startNanos;
+        long tat;
+        if (arrivalTable != null) {
+            int slot = arrivalTable.slotOf(userId);
+            if (slot < 0) {
+                // The table is full and will stay so: the user is either never or always let through.
+                return arrivalTable.allowUntracked() ? 0 : Long.MAX_VALUE;
+            }
+            tat = arrivalTable.get(slot);
+        } else {
+            AtomicLong arrivalTime = userArrivalTimes.get(userId);
+            tat = arrivalTime == null ? 0 : arrivalTime.get();
+        }
+        long excessNanos = Math.max(tat, nowNanos) + permits * emissionIntervalNanos - nowNanos - burstToleranceNanos;
+        return Math.max(0, excessNanos);
+    }
+}
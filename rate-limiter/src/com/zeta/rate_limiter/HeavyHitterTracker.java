@@ -0,0 +1,118 @@
+package com.zeta.rate_limiter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * HeavyHitterTracker finds the users sending the most requests in bounded space, however many users there are.
+ *
+ * Request counts are estimated with a count-min sketch: each user increments one counter in each of a few
+ * rows, and its estimate is the smallest of those counters, which can overcount through collisions but never
+ * undercounts. The top K estimates are kept in a small min-heap. Once the heap is full, a user is only
+ * considered for it when its estimate beats the heap's smallest, which is checked against a volatile floor
+ * without locking; so the common request costs a hash and a few atomic increments.
+ *
+ * A heavy hitter beats the floor on every request, so it only takes the heap's lock at sample points: every
+ * count up to 2^SAMPLE_BITS, then 2^SAMPLE_BITS evenly spaced counts per power of two. A hot user locks
+ * O(log n) times for n requests, and the heap orders users by counts at most 1/2^SAMPLE_BITS behind; topK()
+ * reports current estimates, read back from the sketch.
+ */
+public class HeavyHitterTracker {
+
+    private static final int DEPTH = 4;
+    private static final int SAMPLE_BITS = 4;
+
+    private final int topK;
+    private final int widthMask;
+    private final AtomicLongArray sketch;   // Row r at [r * width, (r + 1) * width)
+    private final PriorityQueue<HeavyHitter> heap = new PriorityQueue<>(Comparator.comparingLong(HeavyHitter::estimatedRequests));
+    private final HashMap<String, HeavyHitter> heapEntries = new HashMap<>();
+    private volatile long admissionFloor;   // Smallest estimate in the heap once it is full, 0 until then
+
+    //Tracks the topK heaviest users with a sketch of width counters per row, rounded up to a power of two.
+    public HeavyHitterTracker(int topK, int width) {
+        if (topK < 1 || width < 1 || width > 1 << 26) {
+            throw new IllegalArgumentException("topK must be positive and width between 1 and 2^26");
+        }
+        int roundedWidth = Integer.highestOneBit(width) == width ? width : Integer.highestOneBit(width) << 1;
+        this.topK = topK;
+        this.widthMask = roundedWidth - 1;
+        this.sketch = new AtomicLongArray(DEPTH * roundedWidth);
+    }
+
+    public void record(String userId) {
+        long hash = PackedStateStore.hash(userId);
+        // Row indexes from two halves of one hash (Kirsch-Mitzenmacher), so a request hashes its ID only once.
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, sketch.incrementAndGet(index(row, h1, h2)));
+        }
+        if (estimate > admissionFloor && isSamplePoint(estimate)) {
+            offer(userId, estimate);
+        }
+    }
+
+    //Heaviest users first, with their estimated request counts.
+    public List<HeavyHitter> topK() {
+        List<String> userIds;
+        synchronized (this) {
+            userIds = new ArrayList<>(heapEntries.keySet());
+        }
+        List<HeavyHitter> top = new ArrayList<>(userIds.size());
+        for (String userId : userIds) {
+            top.add(new HeavyHitter(userId, estimate(userId)));
+        }
+        top.sort(Comparator.comparingLong(HeavyHitter::estimatedRequests).reversed());
+        return top;
+    }
+
+    private long estimate(String userId) {
+        long hash = PackedStateStore.hash(userId);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, sketch.get(index(row, h1, h2)));
+        }
+        return estimate;
+    }
+
+    private int index(int row, int h1, int h2) {
+        return row * (widthMask + 1) + ((h1 + row * h2) & widthMask);
+    }
+
+    private static boolean isSamplePoint(long estimate) {
+        long step = Long.highestOneBit(estimate) >>> SAMPLE_BITS;
+        return step == 0 || (estimate & (step - 1)) == 0;
+    }
+
+    private synchronized void offer(String userId, long estimate) {
+        HeavyHitter current = heapEntries.get(userId);
+        if (current != null) {
+            if (estimate <= current.estimatedRequests()) {
+                return;
+            }
+            heap.remove(current);
+        } else if (heap.size() == topK) {
+            if (estimate <= heap.peek().estimatedRequests()) {
+                return;
+            }
+            heapEntries.remove(heap.poll().userId());
+        }
+        HeavyHitter updated = new HeavyHitter(userId, estimate);
+        heap.add(updated);
+        heapEntries.put(userId, updated);
+        if (heap.size() == topK) {
+            admissionFloor = heap.peek().estimatedRequests();
+        }
+    }
+
+    public record HeavyHitter(String userId, long estimatedRequests) {
+    }
+}
@@ -0,0 +1,42 @@
+package com.zeta.rate_limiter;
+
+/**
+ * InstrumentedRateLimiter reports every decision of the wrapped {@link RateLimiter} to a
+ * {@link RateLimiterMetrics}; create it through {@link RateLimiterMetrics#instrument}.
+ *
+ * Latency is measured around each single-user decision. Batches keep the wrapped limiter's batch path, so their
+ * entries are counted but their time is not recorded.
+ */
+class InstrumentedRateLimiter implements RateLimiter {
+
+    private final RateLimiter limiter;
+    private final RateLimiterMetrics metrics;
+
+    InstrumentedRateLimiter(RateLimiter limiter, RateLimiterMetrics metrics) {
+        this.limiter = limiter;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public boolean tryAcquire(String userId, int permits) {
+        long startNanos = System.nanoTime();
+        boolean granted = limiter.tryAcquire(userId, permits);
+        metrics.recordLatency(System.nanoTime() - startNanos);
+        metrics.recordDecision(userId, granted);
+        return granted;
+    }
+
+    @Override
+    public long retryAfterNanos(String userId, int permits) {
+        return limiter.retryAfterNanos(userId, permits);
+    }
+
+    @Override
+    public boolean[] tryAcquireAll(String[] userIds, int[] permits) {
+        boolean[] granted = limiter.tryAcquireAll(userIds, permits);
+        for (int i = 0; i < granted.length; i++) {
+            metrics.recordDecision(userIds[i], granted[i]);
+        }
+        return granted;
+    }
+}
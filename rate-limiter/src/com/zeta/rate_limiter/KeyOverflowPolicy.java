@@ -0,0 +1,12 @@
+package com.zeta.rate_limiter;
+
+/**
+ * KeyOverflowPolicy decides what happens to a request from a user who is not yet tracked
+ * when a limiter already holds its configured maximum number of keys.
+ */
+public enum KeyOverflowPolicy {
+    // Fail closed: requests from new users are denied until idle keys are evicted.
+    DENY_NEW_KEYS,
+    // Fail open: requests from new users are allowed without being tracked.
+    ALLOW_UNTRACKED
+}
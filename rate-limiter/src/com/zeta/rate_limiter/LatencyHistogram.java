@@ -0,0 +1,66 @@
+package com.zeta.rate_limiter;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * LatencyHistogram records durations in nanoseconds into HDR-style log-linear buckets: values below 128 get a
+ * bucket each, and every power-of-two range above that is split into 64 equal buckets, so any recorded value
+ * is reported within 1/64 (about 1.6%) of its true value. Recording is one atomic increment and never
+ * allocates; memory is fixed at about 19 KB whatever the number of samples.
+ */
+public class LatencyHistogram {
+
+    private static final int PRECISION_BITS = 7;
+    private static final int HALF_BUCKETS = 1 << (PRECISION_BITS - 1);   // Buckets per power of two above 2^7
+    // Longer durations are counted as this one; a limiter call taking over an hour has other problems.
+    private static final long MAX_TRACKABLE_NANOS = (1L << 42) - 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(bucketOf(MAX_TRACKABLE_NANOS) + 1);
+
+    public void record(long nanos) {
+        counts.getAndIncrement(bucketOf(Math.min(Math.max(nanos, 0), MAX_TRACKABLE_NANOS)));
+    }
+
+    //Copies the current counts; concurrent recording carries on while the copy is made.
+    public long[] countsSnapshot() {
+        long[] copy = new long[counts.length()];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = counts.get(i);
+        }
+        return copy;
+    }
+
+    /**
+     * Returns the value at the given quantile (0.5 for the median, 0.99 for p99) of a counts snapshot, as the
+     * largest value its bucket covers, or 0 if nothing was recorded.
+     */
+    public static long valueAtQuantile(long[] counts, double quantile) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return highestValueIn(i);
+            }
+        }
+        return highestValueIn(counts.length - 1);
+    }
+
+    static int bucketOf(long nanos) {
+        int magnitude = 63 - Long.numberOfLeadingZeros(nanos | 1);
+        int shift = Math.max(0, magnitude - PRECISION_BITS + 1);
+        return shift * HALF_BUCKETS + (int) (nanos >>> shift);
+    }
+
+    static long highestValueIn(int bucket) {
+        int shift = Math.max(0, bucket / HALF_BUCKETS - 1);
+        return ((long) (bucket - shift * HALF_BUCKETS) << shift) + (1L << shift) - 1;
+    }
+}
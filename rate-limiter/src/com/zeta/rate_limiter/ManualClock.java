@@ -0,0 +1,24 @@
+package com.zeta.rate_limiter;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ManualClock only moves when told to, which makes limiter behaviour deterministic in tests.
+ */
+public class ManualClock implements RateLimiterClock {
+
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    @Override
+    public long nanoTime() {
+        return nanoTime.get();
+    }
+
+    public void advance(Duration duration) {
+        if (duration.isNegative()) {
+            throw new IllegalArgumentException("a monotonic clock cannot go backwards");
+        }
+        nanoTime.addAndGet(duration.toNanos());
+    }
+}
@@ -0,0 +1,166 @@
+package com.zeta.rate_limiter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * MappedStateTable is a {@link PackedStateStore} in a memory-mapped file, so that limiters in several processes
+ * on the same host enforce one shared limit: every process that opens the same file with the same maxKeys sees
+ * the same slots, and keys, states and the key count are all updated with compare-and-set on the mapping.
+ *
+ * Limiters sharing a table measure time from an origin stored in the file, so all of them must use clocks on
+ * the same time axis; {@link RateLimiterClock#MONOTONIC} is shared by all processes on a host. That axis
+ * restarts at boot, so on Linux the table is cleared when it is first opened after a reboot.
+ */
+public class MappedStateTable extends PackedStateStore {
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final long MAGIC = 0x5a5254534c4d4150L;   // "ZRTSLMAP"
+    private static final long VERSION = 1;
+    private static final Path BOOT_ID = Path.of("/proc/sys/kernel/random/boot_id");
+    // Marks an origin no limiter has claimed yet; any clock reading can be a valid origin, including 0.
+    private static final long NO_ORIGIN = Long.MIN_VALUE;
+
+    // Header: magic, version, slot count, max keys, key count, origin, boot ID hash, padded to one cache line.
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 8;
+    private static final int SLOT_COUNT_OFFSET = 16;
+    private static final int MAX_KEYS_OFFSET = 24;
+    private static final int SIZE_OFFSET = 32;
+    private static final int ORIGIN_OFFSET = 40;
+    private static final int BOOT_ID_OFFSET = 48;
+    private static final int HEADER_BYTES = 64;
+
+    private final MappedByteBuffer buffer;   // key at HEADER_BYTES + 16 * i, state 8 bytes after it
+    private final int slotCount;
+    private final int maxKeys;
+
+    private MappedStateTable(MappedByteBuffer buffer, int slotCount, int maxKeys, KeyOverflowPolicy overflowPolicy) {
+        super(overflowPolicy);
+        this.buffer = buffer;
+        this.slotCount = slotCount;
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Opens the table in the given file, creating and sizing it if needed. The file stays mapped until the
+     * table is garbage collected; it holds no lock while in use.
+     */
+    public static MappedStateTable open(Path file, int maxKeys, KeyOverflowPolicy overflowPolicy) {
+        long slotCount = (long) Math.ceil(maxKeys / MAX_LOAD_FACTOR);
+        long fileBytes = HEADER_BYTES + 16 * slotCount;
+        if (maxKeys < 1 || fileBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("maxKeys must be between 1 and " + (int) ((Integer.MAX_VALUE - HEADER_BYTES) / 16 * MAX_LOAD_FACTOR));
+        }
+        long bootId = bootId();
+        // FileChannel.lock only excludes other processes; threads of this JVM are excluded by the monitor.
+        synchronized (MappedStateTable.class) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), fileBytes));
+                boolean initialized = (long) LONGS.getVolatile(buffer, MAGIC_OFFSET) == MAGIC
+                        && (long) LONGS.get(buffer, VERSION_OFFSET) == VERSION
+                        && (long) LONGS.get(buffer, BOOT_ID_OFFSET) == bootId;
+                if (!initialized) {
+                    if (channel.size() != fileBytes) {
+                        channel.truncate(0);
+                    }
+                    buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileBytes);
+                    for (int offset = 0; offset < fileBytes; offset += 8) {
+                        LONGS.set(buffer, offset, 0L);
+                    }
+                    LONGS.set(buffer, VERSION_OFFSET, VERSION);
+                    LONGS.set(buffer, SLOT_COUNT_OFFSET, slotCount);
+                    LONGS.set(buffer, MAX_KEYS_OFFSET, (long) maxKeys);
+                    LONGS.set(buffer, ORIGIN_OFFSET, NO_ORIGIN);
+                    LONGS.set(buffer, BOOT_ID_OFFSET, bootId);
+                    // Published last, so a header with the magic is always complete.
+                    LONGS.setVolatile(buffer, MAGIC_OFFSET, MAGIC);
+                } else if ((long) LONGS.get(buffer, MAX_KEYS_OFFSET) != maxKeys) {
+                    throw new IllegalArgumentException(file + " holds a table for " + LONGS.get(buffer, MAX_KEYS_OFFSET) + " keys, not " + maxKeys);
+                }
+                return new MappedStateTable(buffer, (int) slotCount, maxKeys, overflowPolicy);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot map rate limiter state file " + file, e);
+            }
+        }
+    }
+
+    @Override
+    public long get(int slot) {
+        return (long) LONGS.getVolatile(buffer, stateOffset(slot));
+    }
+
+    @Override
+    public boolean compareAndSet(int slot, long expectedState, long newState) {
+        return LONGS.compareAndSet(buffer, stateOffset(slot), expectedState, newState);
+    }
+
+    //The first limiter to ask sets the origin from its clock; every other limiter, in any process, reuses it.
+    @Override
+    long originNanos(RateLimiterClock clock) {
+        LONGS.compareAndSet(buffer, ORIGIN_OFFSET, NO_ORIGIN, clock.nanoTime());
+        return (long) LONGS.getVolatile(buffer, ORIGIN_OFFSET);
+    }
+
+    @Override
+    public int size() {
+        return (int) (long) LONGS.getVolatile(buffer, SIZE_OFFSET);
+    }
+
+    @Override
+    protected int slotCount() {
+        return slotCount;
+    }
+
+    @Override
+    protected long keyAt(int slot) {
+        return (long) LONGS.getAcquire(buffer, keyOffset(slot));
+    }
+
+    @Override
+    protected boolean compareAndSetKey(int slot, long expectedKey, long newKey) {
+        return LONGS.compareAndSet(buffer, keyOffset(slot), expectedKey, newKey);
+    }
+
+    @Override
+    protected boolean reserveKey() {
+        if ((long) LONGS.getAndAdd(buffer, SIZE_OFFSET, 1L) >= maxKeys) {
+            LONGS.getAndAdd(buffer, SIZE_OFFSET, -1L);
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    protected void releaseKey() {
+        LONGS.getAndAdd(buffer, SIZE_OFFSET, -1L);
+    }
+
+    private static int keyOffset(int slot) {
+        return HEADER_BYTES + 16 * slot;
+    }
+
+    private static int stateOffset(int slot) {
+        return HEADER_BYTES + 16 * slot + 8;
+    }
+
+    //Identifies the current boot, or 0 where the OS does not expose one and the table is never cleared.
+    private static long bootId() {
+        try {
+            return hash(Files.readString(BOOT_ID, StandardCharsets.US_ASCII).trim());
+        } catch (IOException | SecurityException e) {
+            return 0;
+        }
+    }
+}
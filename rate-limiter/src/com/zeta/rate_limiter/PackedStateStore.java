@@ -0,0 +1,103 @@
+package com.zeta.rate_limiter;
+
+/**
+ * PackedStateStore is a fixed-size, open-addressing store of one packed long of limiter state per user, for
+ * limiters whose whole per-user state fits in a long ({@link LockFreeTokenBucketRateLimiter},
+ * {@link GcraRateLimiter}). Subclasses only decide where the slots live; probing is shared here.
+ *
+ * Users are keyed by a 64-bit hash of their ID, so no String or node object is retained per user. Keys and
+ * states are claimed and updated with compare-and-set, so lookups and updates never lock and never allocate.
+ *
+ * Two users whose IDs hash to the same 64-bit value share state; with tens of millions of keys the chance of
+ * that is a few in 10^5 per table, which is acceptable for rate limiting. Keys are never removed: size the
+ * table for the expected number of distinct users and pick a {@link KeyOverflowPolicy} for when it is full.
+ */
+public abstract class PackedStateStore {
+
+    static final double MAX_LOAD_FACTOR = 0.9;
+    // Reserved key marking an empty slot; a user whose ID hashes to it is stored under EMPTY_KEY_SUBSTITUTE.
+    static final long EMPTY_KEY = 0;
+    private static final long EMPTY_KEY_SUBSTITUTE = 1;
+
+    private final KeyOverflowPolicy overflowPolicy;
+
+    protected PackedStateStore(KeyOverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    //Returns the slot holding the user's state, claiming one if needed, or -1 if the store is full.
+    public int slotOf(String userId) {
+        long key = hash(userId);
+        if (key == EMPTY_KEY) {
+            key = EMPTY_KEY_SUBSTITUTE;
+        }
+        int slotCount = slotCount();
+        // Map the high bits onto [0, slotCount) without a modulo; slotCount need not be a power of two.
+        int slot = (int) (((key >>> 32) * slotCount) >>> 32);
+        while (true) {
+            long current = keyAt(slot);
+            if (current == key) {
+                return slot;
+            }
+            if (current == EMPTY_KEY) {
+                // Reserve room first so concurrent inserts can never overshoot maxKeys.
+                if (!reserveKey()) {
+                    return -1;
+                }
+                if (compareAndSetKey(slot, EMPTY_KEY, key)) {
+                    return slot;
+                }
+                releaseKey();
+                // Another thread claimed this slot, possibly for the same user; look at it again.
+                continue;
+            }
+            slot = slot + 1 == slotCount ? 0 : slot + 1;
+        }
+    }
+
+    //Returns the packed state in the slot; 0 means the user has no state yet.
+    public abstract long get(int slot);
+
+    public abstract boolean compareAndSet(int slot, long expectedState, long newState);
+
+    //Result to report for a request whose user could not be tracked because the store is full.
+    public boolean allowUntracked() {
+        return overflowPolicy == KeyOverflowPolicy.ALLOW_UNTRACKED;
+    }
+
+    /**
+     * Origin of the time axis that limiters measure packed states on. A store private to one limiter can use
+     * the limiter's creation time; a store shared by several limiters must give them all the same origin.
+     */
+    long originNanos(RateLimiterClock clock) {
+        return clock.nanoTime();
+    }
+
+    public abstract int size();
+
+    protected abstract int slotCount();
+
+    protected abstract long keyAt(int slot);
+
+    protected abstract boolean compareAndSetKey(int slot, long expectedKey, long newKey);
+
+    //Counts one more key against maxKeys; false if the store is already full.
+    protected abstract boolean reserveKey();
+
+    protected abstract void releaseKey();
+
+    //64-bit FNV-1a over the UTF-16 chars followed by a murmur3 finalizer, computed without allocating.
+    static long hash(String userId) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < userId.length(); i++) {
+            h ^= userId.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,81 @@
+package com.zeta.rate_limiter;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * PrimitiveStateTable is a {@link PackedStateStore} on the Java heap.
+ *
+ * Key and state sit next to each other in a single long[] (16 bytes per slot, one cache line per probe). With
+ * the table sized at most 90% full, a tracked user costs under 18 bytes.
+ */
+public class PrimitiveStateTable extends PackedStateStore {
+
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final long[] slots;        // key at 2 * i, state at 2 * i + 1
+    private final int slotCount;
+    private final int maxKeys;
+    private final AtomicInteger size = new AtomicInteger();
+
+    public PrimitiveStateTable(int maxKeys, KeyOverflowPolicy overflowPolicy) {
+        super(overflowPolicy);
+        long slotCount = (long) Math.ceil(maxKeys / MAX_LOAD_FACTOR);
+        if (maxKeys < 1 || 2 * slotCount > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("maxKeys must be between 1 and " + (int) ((Integer.MAX_VALUE / 2 - 4) * MAX_LOAD_FACTOR));
+        }
+        this.slotCount = (int) slotCount;
+        this.slots = new long[2 * this.slotCount];
+        this.maxKeys = maxKeys;
+    }
+
+    @Override
+    public long get(int slot) {
+        return (long) SLOTS.getVolatile(slots, 2 * slot + 1);
+    }
+
+    @Override
+    public boolean compareAndSet(int slot, long expectedState, long newState) {
+        return SLOTS.compareAndSet(slots, 2 * slot + 1, expectedState, newState);
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    //Heap used by the slot array, for capacity planning.
+    public long footprintBytes() {
+        return 8L * slots.length;
+    }
+
+    @Override
+    protected int slotCount() {
+        return slotCount;
+    }
+
+    @Override
+    protected long keyAt(int slot) {
+        return (long) SLOTS.getAcquire(slots, 2 * slot);
+    }
+
+    @Override
+    protected boolean compareAndSetKey(int slot, long expectedKey, long newKey) {
+        return SLOTS.compareAndSet(slots, 2 * slot, expectedKey, newKey);
+    }
+
+    @Override
+    protected boolean reserveKey() {
+        if (size.incrementAndGet() > maxKeys) {
+            size.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    protected void releaseKey() {
+        size.decrementAndGet();
+    }
+}
@@ -0,0 +1,51 @@
+package com.zeta.rate_limiter;
+
+/**
+ * RateLimiter interface defines the contract for rate limiting.
+ */
+public interface RateLimiter {
+
+    //Takes a single permit for the user.
+    default boolean allowRequest(String userId) {
+        return tryAcquire(userId, 1);
+    }
+
+    //Takes the given number of permits for the user atomically: either all of them are granted or none.
+    boolean tryAcquire(String userId, int permits);
+
+    /**
+     * Returns how long until the given number of permits could be granted to the user, without taking them:
+     * 0 if they are available now, Long.MAX_VALUE if they never will be (more than the limiter can ever grant).
+     * Waiters sleep for this long and then retry, so an estimate that is slightly off only costs another round.
+     */
+    long retryAfterNanos(String userId, int permits);
+
+    /**
+     * Decides a whole batch in one pass: entry i asks for permits[i] permits for userIds[i]. Entries are
+     * applied in order, so a user appearing twice is charged for the first entry before the second is decided.
+     */
+    default boolean[] tryAcquireAll(String[] userIds, int[] permits) {
+        checkBatch(userIds, permits);
+        boolean[] granted = new boolean[userIds.length];
+        for (int i = 0; i < userIds.length; i++) {
+            granted[i] = tryAcquire(userIds[i], permits[i]);
+        }
+        return granted;
+    }
+
+    static void checkPermits(int permits) {
+        if (permits < 1) {
+            throw new IllegalArgumentException("permits must be positive: " + permits);
+        }
+    }
+
+    // Validates the whole batch up front, so an invalid entry is rejected before any entry has been applied.
+    static void checkBatch(String[] userIds, int[] permits) {
+        if (userIds.length != permits.length) {
+            throw new IllegalArgumentException("userIds and permits must have the same length");
+        }
+        for (int p : permits) {
+            checkPermits(p);
+        }
+    }
+}
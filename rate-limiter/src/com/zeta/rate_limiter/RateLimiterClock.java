@@ -0,0 +1,20 @@
+package com.zeta.rate_limiter;
+
+/**
+ * RateLimiterClock is the time source of every RateLimiter implementation.
+ *
+ * Limiters only ever measure elapsed time, so the clock must be monotonic: unlike System.currentTimeMillis it
+ * must never jump backwards when NTP adjusts the wall clock, which would reset windows or refill buckets
+ * incorrectly. Values have an arbitrary origin and are only meaningful relative to each other.
+ */
+public interface RateLimiterClock {
+
+    // Default clock, backed by System.nanoTime.
+    RateLimiterClock MONOTONIC = System::nanoTime;
+
+    long nanoTime();
+
+    default long millis() {
+        return Math.floorDiv(nanoTime(), 1_000_000L);
+    }
+}
@@ -1,3 +1,5 @@
+package com.zeta.rate_limiter;
+
 public class RateLimiterDemo {
     public static void main(String[] args) throws InterruptedException {
         // Limit: 5 requests per second (i.e., per 1000 milliseconds)
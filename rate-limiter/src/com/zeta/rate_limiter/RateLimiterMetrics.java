@@ -0,0 +1,69 @@
+package com.zeta.rate_limiter;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * RateLimiterMetrics collects what a limiter decided: allowed and denied request counts, the latency of each
+ * decision and the users sending the most requests. Attach it with {@link #instrument}; read it at any time
+ * with {@link #snapshot}, which copies the current values without stopping the recording threads.
+ *
+ * Counters are striped LongAdders so that threads deciding for different users never contend on a shared
+ * cache line. {@link #DISABLED} instruments nothing: the limiter is returned unwrapped, so switching metrics off
+ * removes every cost from the request path rather than leaving a check behind.
+ */
+public class RateLimiterMetrics {
+
+    public static final RateLimiterMetrics DISABLED = new RateLimiterMetrics(1, 1);
+
+    private static final int DEFAULT_TOP_K = 10;
+    private static final int DEFAULT_SKETCH_WIDTH = 4096;
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder denied = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final HeavyHitterTracker heavyHitters;
+
+    public RateLimiterMetrics() {
+        this(DEFAULT_TOP_K, DEFAULT_SKETCH_WIDTH);
+    }
+
+    //Tracks the topK heaviest users in a count-min sketch with sketchWidth counters per row.
+    public RateLimiterMetrics(int topK, int sketchWidth) {
+        this.heavyHitters = new HeavyHitterTracker(topK, sketchWidth);
+    }
+
+    //Returns the limiter reporting into these metrics, or the limiter itself if metrics are disabled.
+    public RateLimiter instrument(RateLimiter limiter) {
+        return this == DISABLED ? limiter : new InstrumentedRateLimiter(limiter, this);
+    }
+
+    public Snapshot snapshot() {
+        long[] latencyCounts = latency.countsSnapshot();
+        return new Snapshot(
+                allowed.sum(),
+                denied.sum(),
+                LatencyHistogram.valueAtQuantile(latencyCounts, 0.5),
+                LatencyHistogram.valueAtQuantile(latencyCounts, 0.99),
+                LatencyHistogram.valueAtQuantile(latencyCounts, 0.999),
+                LatencyHistogram.valueAtQuantile(latencyCounts, 1.0),
+                heavyHitters.topK());
+    }
+
+    void recordDecision(String userId, boolean granted) {
+        (granted ? allowed : denied).increment();
+        heavyHitters.record(userId);
+    }
+
+    void recordLatency(long nanos) {
+        latency.record(nanos);
+    }
+
+    /**
+     * Point-in-time view of the metrics. Latency quantiles are in nanoseconds, accurate to about 1.6%;
+     * heavy hitters are the heaviest users first, with request counts that may be overestimated.
+     */
+    public record Snapshot(long allowed, long denied, long p50Nanos, long p99Nanos, long p999Nanos, long maxNanos,
+                           List<HeavyHitterTracker.HeavyHitter> heavyHitters) {
+    }
+}
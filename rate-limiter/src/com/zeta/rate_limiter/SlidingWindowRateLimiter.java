@@ -0,0 +1,141 @@
+package com.zeta.rate_limiter;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SlidingWindowRateLimiter implements the sliding window counter algorithm.
+ * The window is split into sub-windows whose counts are kept in a small ring per user. The sub-window that
+ * just slid out of the window is weighted by how much of it still overlaps the window, so a burst straddling
+ * a window boundary cannot get 2x maxRequests through as it can with {@link FixedWindowRateLimiter}.
+ */
+public class SlidingWindowRateLimiter implements RateLimiter {
+
+    private static final int DEFAULT_SUB_WINDOWS = 10;
+
+    private final int maxRequests;
+    private final int subWindows;
+    private final long subWindowMillis;
+    // Map to store per-user ring of sub-window counters. ConcurrentHashMap ensures thread safety.
+    private final ConcurrentHashMap<String, SlidingWindow> userWindows = new ConcurrentHashMap<>();
+    private final RateLimiterClock clock;
+
+    public SlidingWindowRateLimiter(int maxRequests, long windowTimeMillis) {
+        this(maxRequests, windowTimeMillis, DEFAULT_SUB_WINDOWS);
+    }
+
+    public SlidingWindowRateLimiter(int maxRequests, long windowTimeMillis, int subWindows) {
+        this(maxRequests, windowTimeMillis, subWindows, RateLimiterClock.MONOTONIC);
+    }
+
+    public SlidingWindowRateLimiter(int maxRequests, long windowTimeMillis, int subWindows, RateLimiterClock clock) {
+        if (subWindows < 1 || windowTimeMillis % subWindows != 0) {
+            throw new IllegalArgumentException("windowTimeMillis must be a positive multiple of subWindows");
+        }
+        this.maxRequests = maxRequests;
+        this.subWindows = subWindows;
+        this.subWindowMillis = windowTimeMillis / subWindows;
+        this.clock = clock;
+    }
+
+    //Checks if the specified user may make a request costing the given number of permits.
+    @Override
+    public boolean tryAcquire(String userId, int permits) {
+        RateLimiter.checkPermits(permits);
+        long currentTimeMillis = clock.millis();
+        long currentSubWindow = Math.floorDiv(currentTimeMillis, subWindowMillis);
+        long offsetMillis = Math.floorMod(currentTimeMillis, subWindowMillis);
+
+        SlidingWindow window = userWindows.computeIfAbsent(userId, id -> new SlidingWindow(subWindows, currentSubWindow));
+
+        synchronized (window) {
+            window.advanceTo(currentSubWindow);
+            // Scaled by subWindowMillis so the weighting of the expiring sub-window stays in integer arithmetic.
+            long expiringCount = window.counts[window.slot(currentSubWindow - subWindows)];
+            long weighted = window.total * subWindowMillis + expiringCount * (subWindowMillis - offsetMillis);
+            if (weighted + permits * subWindowMillis <= (long) maxRequests * subWindowMillis) {
+                window.counts[window.slot(currentSubWindow)] += permits;
+                window.total += permits;
+                return true;
+            } else {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * The weight of the expiring sub-window shrinks as the current one goes on, so the wait can end inside the
+     * current sub-window. If even dropping it completely would not make room, wait for the next boundary and
+     * re-check then.
+     */
+    @Override
+    public long retryAfterNanos(String userId, int permits) {
+        RateLimiter.checkPermits(permits);
+        if (permits > maxRequests) {
+            return Long.MAX_VALUE;
+        }
+        long currentTimeMillis = clock.millis();
+        long currentSubWindow = Math.floorDiv(currentTimeMillis, subWindowMillis);
+        long offsetMillis = Math.floorMod(currentTimeMillis, subWindowMillis);
+        SlidingWindow window = userWindows.get(userId);
+        if (window == null) {
+            return 0;
+        }
+        long waitMillis;
+        synchronized (window) {
+            window.advanceTo(currentSubWindow);
+            long expiringCount = window.counts[window.slot(currentSubWindow - subWindows)];
+            long headroom = ((long) maxRequests - window.total - permits) * subWindowMillis;
+            if (expiringCount * (subWindowMillis - offsetMillis) <= headroom) {
+                return 0;
+            }
+            if (headroom >= 0) {
+                // Smallest offset at which expiringCount * (subWindowMillis - offset) <= headroom.
+                waitMillis = subWindowMillis - headroom / expiringCount - offsetMillis;
+            } else {
+                waitMillis = subWindowMillis - offsetMillis;
+            }
+        }
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(1, waitMillis));
+    }
+
+    /**
+     * Ring of subWindows + 1 counters: the last subWindows sub-windows (current one included) are summed in
+     * total, the extra slot keeps the sub-window that has just left the window for the weighting above.
+     */
+    private static class SlidingWindow {
+        final int[] counts;
+        long subWindow;
+        int total;
+
+        SlidingWindow(int subWindows, long subWindow) {
+            this.counts = new int[subWindows + 1];
+            this.subWindow = subWindow;
+        }
+
+        int slot(long subWindow) {
+            return (int) Math.floorMod(subWindow, (long) counts.length);
+        }
+
+        //Slides the ring forward, touching at most counts.length slots however long the user was idle.
+        void advanceTo(long currentSubWindow) {
+            long steps = currentSubWindow - subWindow;
+            if (steps <= 0) {
+                return;
+            }
+            if (steps >= counts.length) {
+                Arrays.fill(counts, 0);
+                total = 0;
+            } else {
+                int inWindow = counts.length - 1;
+                for (long s = subWindow + 1; s <= currentSubWindow; s++) {
+                    // Sub-window s - inWindow leaves the summed window and becomes the weighted one.
+                    total -= counts[slot(s - inWindow)];
+                    counts[slot(s)] = 0;
+                }
+            }
+            subWindow = currentSubWindow;
+        }
+    }
+}
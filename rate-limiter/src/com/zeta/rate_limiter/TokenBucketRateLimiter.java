@@ -0,0 +1,126 @@
+package com.zeta.rate_limiter;
+
+/**
+ * TokenBucketRateLimiter implements the token bucket algorithm for rate limiting.
+ * Each user is allowed up to a certain burst (bucket capacity) with tokens refilling at a fixed rate.
+ */
+public class TokenBucketRateLimiter implements RateLimiter {
+
+    private final double capacity;    // Maximum tokens (burst capacity)
+    private final double refillRate;  // Tokens per second
+    // Buckets idle long enough to have refilled completely are evicted; a new bucket starts full anyway.
+    private final EvictingStateMap<TokenBucket> userBuckets;
+    private final RateLimiterClock clock;
+
+
+    //Constructs a TokenBucketRateLimiter.
+    public TokenBucketRateLimiter(double capacity, double refillRate) {
+        this(capacity, refillRate, Long.MAX_VALUE, KeyOverflowPolicy.DENY_NEW_KEYS, RateLimiterClock.MONOTONIC);
+    }
+
+    //Constructs a TokenBucketRateLimiter tracking at most maxKeys users.
+    public TokenBucketRateLimiter(double capacity, double refillRate, long maxKeys, KeyOverflowPolicy overflowPolicy) {
+        this(capacity, refillRate, maxKeys, overflowPolicy, RateLimiterClock.MONOTONIC);
+    }
+
+    public TokenBucketRateLimiter(double capacity, double refillRate, long maxKeys, KeyOverflowPolicy overflowPolicy,
+                                  RateLimiterClock clock) {
+        this.capacity = capacity;
+        this.refillRate = refillRate;
+        long fullRefillMillis = refillRate > 0 ? (long) Math.ceil(capacity / refillRate * 1000) : Long.MAX_VALUE;
+        this.userBuckets = new EvictingStateMap<>(fullRefillMillis, maxKeys, overflowPolicy);
+        this.clock = clock;
+    }
+
+    //Checks if the specified user may make a request costing the given number of permits.
+    @Override
+    public boolean tryAcquire(String userId, int permits) {
+        RateLimiter.checkPermits(permits);
+        return tryAcquire(userId, permits, clock.millis());
+    }
+
+    //Decides the whole batch against a single reading of the clock.
+    @Override
+    public boolean[] tryAcquireAll(String[] userIds, int[] permits) {
+        RateLimiter.checkBatch(userIds, permits);
+        long currentTimeMillis = clock.millis();
+        boolean[] granted = new boolean[userIds.length];
+        for (int i = 0; i < userIds.length; i++) {
+            granted[i] = tryAcquire(userIds[i], permits[i], currentTimeMillis);
+        }
+        return granted;
+    }
+
+    //Time for the missing tokens to refill.
+    @Override
+    public long retryAfterNanos(String userId, int permits) {
+        RateLimiter.checkPermits(permits);
+        if (permits > capacity) {
+            return Long.MAX_VALUE;
+        }
+        long currentTimeMillis = clock.millis();
+        TokenBucket bucket = userBuckets.get(userId);
+        if (bucket == null) {
+            return 0;
+        }
+        double missingTokens;
+        synchronized (bucket) {
+            if (bucket.evicted) {
+                return 0;
+            }
+            refillBucket(bucket, currentTimeMillis);
+            missingTokens = permits - bucket.tokens;
+        }
+        if (missingTokens <= 0) {
+            return 0;
+        }
+        return refillRate > 0 ? (long) Math.ceil(missingTokens / refillRate * 1e9) : Long.MAX_VALUE;
+    }
+
+    private boolean tryAcquire(String userId, int permits, long currentTimeMillis) {
+        while (true) {
+            TokenBucket bucket = userBuckets.getOrCreate(userId, currentTimeMillis,
+                    id -> new TokenBucket(capacity, currentTimeMillis));
+            if (bucket == null) {
+                return userBuckets.allowUntracked();
+            }
+
+            synchronized (bucket) {
+                if (bucket.evicted) {
+                    // Evicted while we were waiting for the lock; retry with a fresh bucket.
+                    continue;
+                }
+                bucket.lastAccessMillis = currentTimeMillis;
+                refillBucket(bucket, currentTimeMillis);
+                if (bucket.tokens >= permits) {
+                    bucket.tokens -= permits;
+                    return true;
+                } else {
+                    return false;
+                }
+            }
+        }
+    }
+
+
+    //Refills the token bucket based on the elapsed time since the last refill.
+    private void refillBucket(TokenBucket bucket, long currentTimeMillis) {
+        long elapsedMillis = currentTimeMillis - bucket.lastRefillTimestamp;
+        if (elapsedMillis > 0) {
+            double tokensToAdd = (elapsedMillis / 1000.0) * refillRate;
+            bucket.tokens = Math.min(capacity, bucket.tokens + tokensToAdd);
+            bucket.lastRefillTimestamp = currentTimeMillis;
+        }
+    }
+
+    private static class TokenBucket extends EvictableState {
+        double tokens;
+        long lastRefillTimestamp;
+
+        TokenBucket(double tokens, long lastRefillTimestamp) {
+            super(lastRefillTimestamp);
+            this.tokens = tokens;
+            this.lastRefillTimestamp = lastRefillTimestamp;
+        }
+    }
+}
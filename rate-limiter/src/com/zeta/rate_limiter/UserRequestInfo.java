@@ -0,0 +1,12 @@
+package com.zeta.rate_limiter;
+
+public class UserRequestInfo extends EvictableState {
+    long window;
+    int count;
+
+    UserRequestInfo(long window, long lastAccessMillis) {
+        super(lastAccessMillis);
+        this.window = window;
+        this.count = 0;
+    }
+}
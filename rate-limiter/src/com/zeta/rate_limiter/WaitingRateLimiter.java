@@ -0,0 +1,237 @@
+package com.zeta.rate_limiter;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * WaitingRateLimiter adds blocking and asynchronous acquisition on top of any {@link RateLimiter}.
+ *
+ * Callers that cannot get their permits immediately join a FIFO queue for their user. Instead of spinning,
+ * the queue asks the limiter how long until the head waiter's permits are available and schedules a single
+ * check on a shared timer for that moment. Later arrivals queue behind existing waiters rather than barging
+ * ahead, so a large request is not starved by a stream of small ones.
+ *
+ * Nothing here blocks while holding a monitor: queues are guarded by ReentrantLocks held only for queue
+ * bookkeeping, and blocking callers park on a CompletableFuture, so virtual threads unmount while they wait.
+ * Futures are completed on the timer thread; use the *Async stages for any heavy continuation work.
+ */
+public class WaitingRateLimiter implements RateLimiter {
+
+    // Floor on rescheduling so a limiter reporting 0 for a contended key cannot make the timer spin.
+    private static final long MIN_RECHECK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final ScheduledExecutorService SHARED_TIMER = createSharedTimer();
+
+    private final RateLimiter limiter;
+    private final ScheduledExecutorService timer;
+    private final ConcurrentHashMap<String, WaitQueue> waitQueues = new ConcurrentHashMap<>();
+
+    public WaitingRateLimiter(RateLimiter limiter) {
+        this(limiter, SHARED_TIMER);
+    }
+
+    public WaitingRateLimiter(RateLimiter limiter, ScheduledExecutorService timer) {
+        this.limiter = limiter;
+        this.timer = timer;
+    }
+
+    //Non-blocking attempt; fails while other callers are queued for the same user.
+    @Override
+    public boolean tryAcquire(String userId, int permits) {
+        RateLimiter.checkPermits(permits);
+        WaitQueue queue = waitQueues.get(userId);
+        if (queue == null) {
+            return limiter.tryAcquire(userId, permits);
+        }
+        queue.lock.lock();
+        try {
+            return queue.isIdle() && limiter.tryAcquire(userId, permits);
+        } finally {
+            queue.lock.unlock();
+        }
+    }
+
+    @Override
+    public long retryAfterNanos(String userId, int permits) {
+        return limiter.retryAfterNanos(userId, permits);
+    }
+
+    //Waits up to the timeout for a permit; returns false if it could not be granted in time.
+    public boolean acquire(String userId, Duration timeout) throws InterruptedException {
+        return acquire(userId, 1, timeout);
+    }
+
+    public boolean acquire(String userId, int permits, Duration timeout) throws InterruptedException {
+        CompletableFuture<Void> granted = acquireAsync(userId, permits);
+        try {
+            granted.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (TimeoutException | InterruptedException e) {
+            // Cancelling only wins if the permits were not granted in the meantime.
+            if (granted.cancel(false)) {
+                if (e instanceof InterruptedException) {
+                    throw (InterruptedException) e;
+                }
+                return false;
+            }
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            return true;
+        } catch (ExecutionException e) {
+            throw (RuntimeException) e.getCause();
+        }
+    }
+
+    //Returns a future completed once a permit has been granted to the user.
+    public CompletableFuture<Void> acquireAsync(String userId) {
+        return acquireAsync(userId, 1);
+    }
+
+    /**
+     * Returns a future completed once the permits have been granted. Cancelling the future gives up the place
+     * in the queue. If the limiter can never grant that many permits, the future fails with
+     * IllegalArgumentException.
+     */
+    public CompletableFuture<Void> acquireAsync(String userId, int permits) {
+        RateLimiter.checkPermits(permits);
+        if (!waitQueues.containsKey(userId) && limiter.tryAcquire(userId, permits)) {
+            // Nobody is waiting for this user: no queue needs to be created.
+            return CompletableFuture.completedFuture(null);
+        }
+        while (true) {
+            WaitQueue queue = waitQueues.computeIfAbsent(userId, id -> new WaitQueue());
+            queue.lock.lock();
+            try {
+                if (queue.retired) {
+                    // Removed by a drain that just emptied it; use a fresh queue.
+                    continue;
+                }
+                if (queue.isIdle() && limiter.tryAcquire(userId, permits)) {
+                    retireIfIdle(userId, queue);
+                    return CompletableFuture.completedFuture(null);
+                }
+                Waiter waiter = new Waiter(permits, new CompletableFuture<>());
+                if (queue.drainScheduled) {
+                    queue.waiters.add(waiter);
+                    return waiter.future;
+                }
+                // An idle queue has no drain pending, so this waiter is the head and sets the first wake-up.
+                long waitNanos = limiter.retryAfterNanos(userId, permits);
+                if (waitNanos == Long.MAX_VALUE) {
+                    retireIfIdle(userId, queue);
+                    return CompletableFuture.failedFuture(cannotGrant(permits));
+                }
+                scheduleDrain(userId, queue, waitNanos);
+                queue.waiters.add(waiter);
+                return waiter.future;
+            } finally {
+                queue.lock.unlock();
+            }
+        }
+    }
+
+    //Grants permits to waiters in arrival order until the head cannot be served, then sleeps until it can.
+    private void drain(String userId, WaitQueue queue) {
+        List<Waiter> granted = new ArrayList<>();
+        List<Waiter> impossible = new ArrayList<>();
+        List<Waiter> failed = new ArrayList<>();
+        RuntimeException failure = null;
+        queue.lock.lock();
+        try {
+            queue.drainScheduled = false;
+            try {
+                while (!queue.waiters.isEmpty()) {
+                    Waiter head = queue.waiters.peek();
+                    if (head.future.isDone()) {
+                        // Cancelled or timed out while queued.
+                        queue.waiters.poll();
+                    } else if (limiter.tryAcquire(userId, head.permits)) {
+                        granted.add(queue.waiters.poll());
+                    } else {
+                        long waitNanos = limiter.retryAfterNanos(userId, head.permits);
+                        if (waitNanos != Long.MAX_VALUE) {
+                            scheduleDrain(userId, queue, waitNanos);
+                            break;
+                        }
+                        impossible.add(queue.waiters.poll());
+                    }
+                }
+            } catch (RuntimeException e) {
+                // The limiter (or the timer) failed. With no drain pending nothing would ever wake the remaining
+                // waiters, so they fail with the cause instead of hanging; new arrivals start a fresh queue.
+                failure = e;
+                failed.addAll(queue.waiters);
+                queue.waiters.clear();
+            }
+            retireIfIdle(userId, queue);
+        } finally {
+            queue.lock.unlock();
+        }
+        // Complete outside the lock so continuations never run while holding it. A waiter cancelled between
+        // being granted and here loses its permits, as with any request abandoned after it was let through.
+        for (Waiter waiter : granted) {
+            waiter.future.complete(null);
+        }
+        for (Waiter waiter : impossible) {
+            waiter.future.completeExceptionally(cannotGrant(waiter.permits));
+        }
+        for (Waiter waiter : failed) {
+            waiter.future.completeExceptionally(failure);
+        }
+    }
+
+    private static IllegalArgumentException cannotGrant(int permits) {
+        return new IllegalArgumentException("Rate limiter can never grant " + permits + " permits");
+    }
+
+    //Called with the queue's lock held, so the drain cannot start before drainScheduled is set.
+    private void scheduleDrain(String userId, WaitQueue queue, long waitNanos) {
+        timer.schedule(() -> drain(userId, queue), Math.max(waitNanos, MIN_RECHECK_NANOS), TimeUnit.NANOSECONDS);
+        queue.drainScheduled = true;
+    }
+
+    private void retireIfIdle(String userId, WaitQueue queue) {
+        if (queue.waiters.isEmpty() && !queue.drainScheduled) {
+            queue.retired = true;
+            waitQueues.remove(userId, queue);
+        }
+    }
+
+    private static ScheduledExecutorService createSharedTimer() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "rate-limiter-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    private record Waiter(int permits, CompletableFuture<Void> future) {
+    }
+
+    private static class WaitQueue {
+        final ReentrantLock lock = new ReentrantLock();
+        final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+        boolean drainScheduled;
+        boolean retired;
+
+        //True when no live waiter is ahead of a new arrival.
+        boolean isIdle() {
+            while (!waiters.isEmpty() && waiters.peek().future.isDone()) {
+                waiters.poll();
+            }
+            return waiters.isEmpty();
+        }
+    }
+}
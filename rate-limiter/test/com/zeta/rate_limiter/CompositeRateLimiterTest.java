@@ -0,0 +1,98 @@
+package com.zeta.rate_limiter;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that CompositeRateLimiter charges all tiers or none, alone and under contention.
+ */
+class CompositeRateLimiterTest {
+
+    // Slow enough that nothing refills while a test runs.
+    private static final double NO_REFILL = 0.001;
+
+    @Test
+    void deniedRequestsKeepLowerTierPermits() {
+        GcraRateLimiter perUser = new GcraRateLimiter(5, NO_REFILL);
+        GcraRateLimiter perTenant = new GcraRateLimiter(8, NO_REFILL);
+        GcraRateLimiter global = new GcraRateLimiter(10, NO_REFILL);
+        RateLimiter limiter = new CompositeRateLimiter(List.of(
+                CompositeRateLimiter.Tier.perUser(perUser),
+                CompositeRateLimiter.Tier.perGroup("tenant", perTenant, CompositeRateLimiterTest::tenantOf),
+                CompositeRateLimiter.Tier.global(global)));
+
+        assertTrue(limiter.tryAcquire("A-1", 5), "user A-1 is within every tier");
+        assertFalse(limiter.allowRequest("A-1"), "user tier exhausted");
+        assertTrue(limiter.tryAcquire("A-2", 3), "tenant A has 3 permits left");
+        assertFalse(limiter.allowRequest("A-2"), "tenant tier exhausted");
+        assertEquals(0, perUser.retryAfterNanos("A-2", 2), "the tenant deny must not charge A-2's user tier");
+
+        assertTrue(limiter.tryAcquire("B-1", 2), "global tier has 2 permits left");
+        assertFalse(limiter.allowRequest("B-1"), "global tier exhausted");
+        assertEquals(0, perUser.retryAfterNanos("B-1", 3), "the global deny must not charge B-1's user tier");
+        assertEquals(0, perTenant.retryAfterNanos("B", 6), "the global deny must not charge tenant B");
+        assertTrue(limiter.retryAfterNanos("B-1", 1) > 0, "retry-after reflects the most constrained tier");
+    }
+
+    @Test
+    void noPermitsLeakUnderContention() throws InterruptedException {
+        int users = 64;
+        int perUserCapacity = 1_000;
+        int globalCapacity = 10_000;
+        GcraRateLimiter perUser = new GcraRateLimiter(perUserCapacity, NO_REFILL);
+        GcraRateLimiter perTenant = new GcraRateLimiter(4_000, NO_REFILL);
+        GcraRateLimiter global = new GcraRateLimiter(globalCapacity, NO_REFILL);
+        RateLimiter limiter = new CompositeRateLimiter(List.of(
+                CompositeRateLimiter.Tier.perUser(perUser),
+                CompositeRateLimiter.Tier.perGroup("tenant", perTenant, CompositeRateLimiterTest::tenantOf),
+                CompositeRateLimiter.Tier.global(global)));
+
+        AtomicLong[] allowed = new AtomicLong[users];
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[users];
+        for (int t = 0; t < users; t++) {
+            String userId = "ABCD".charAt(t % 4) + "-" + t;
+            AtomicLong count = allowed[t] = new AtomicLong();
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < 2_000; i++) {
+                    if (limiter.allowRequest(userId)) {
+                        count.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long total = 0;
+        for (int t = 0; t < users; t++) {
+            String userId = "ABCD".charAt(t % 4) + "-" + t;
+            long remaining = perUserCapacity - allowed[t].get();
+            total += allowed[t].get();
+            assertTrue(remaining == 0 || perUser.retryAfterNanos(userId, (int) remaining) == 0,
+                    STR."\{userId} was charged for requests it was denied");
+            assertFalse(perUser.tryAcquire(userId, (int) remaining + 1),
+                    STR."\{userId} has more user-tier permits than it should");
+        }
+        assertEquals(globalCapacity, total, "allowed requests");
+    }
+
+    private static String tenantOf(String userId) {
+        return userId.substring(0, userId.indexOf('-'));
+    }
+}
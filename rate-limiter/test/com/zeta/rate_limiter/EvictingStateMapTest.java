@@ -0,0 +1,137 @@
+package com.zeta.rate_limiter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests idle-key eviction and the maximum key count policies of EvictingStateMap.
+ */
+class EvictingStateMapTest {
+
+    @Test
+    void idleKeysAreSweptByLaterRequests() throws InterruptedException {
+        EvictingStateMap<State> map = new EvictingStateMap<>(10, Long.MAX_VALUE, KeyOverflowPolicy.DENY_NEW_KEYS);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 1_000; i++) {
+            map.getOrCreate("user" + i, now, id -> new State(now));
+        }
+        assertEquals(1_000, map.size());
+
+        long later = now + 50;
+        State hot = null;
+        for (int i = 0; i < 200_000; i++) {
+            hot = map.getOrCreate("hot", later, id -> new State(later));
+        }
+        assertEquals(1, map.size(), "idle keys should have been evicted");
+        assertFalse(hot.evicted, "active key must not be evicted");
+    }
+
+    @Test
+    void denyNewKeysWhenFull() {
+        RateLimiter limiter = new FixedWindowRateLimiter(5, 60_000, 10, KeyOverflowPolicy.DENY_NEW_KEYS);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.allowRequest("user" + i), "tracked users below the key limit must be allowed");
+        }
+        assertFalse(limiter.allowRequest("user10"), "new user beyond the key limit must be denied");
+        assertTrue(limiter.allowRequest("user0"), "already tracked users keep being served");
+    }
+
+    @Test
+    void allowUntrackedWhenFull() {
+        RateLimiter limiter = new TokenBucketRateLimiter(1, 0.001, 10, KeyOverflowPolicy.ALLOW_UNTRACKED);
+        for (int i = 0; i < 10; i++) {
+            limiter.allowRequest("user" + i);
+        }
+        assertTrue(limiter.allowRequest("user10"), "new user beyond the key limit must be allowed");
+        assertTrue(limiter.allowRequest("user10"), "untracked user is never limited");
+        assertFalse(limiter.allowRequest("user0"), "tracked users are still limited");
+    }
+
+    @Test
+    void fullMapMakesRoomFromIdleKeys() {
+        EvictingStateMap<State> map = new EvictingStateMap<>(10, 10, KeyOverflowPolicy.DENY_NEW_KEYS);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 10; i++) {
+            map.getOrCreate("user" + i, now, id -> new State(now));
+        }
+        assertNull(map.getOrCreate("late", now, id -> new State(now)), "map is full of active keys");
+        long later = now + 50;
+        assertNotNull(map.getOrCreate("late", later, id -> new State(later)), "idle keys must make room");
+    }
+
+    @Test
+    void concurrentNewKeysNeverExceedTheLimit() throws Exception {
+        int threads = 16;
+        EvictingStateMap<State> map = new EvictingStateMap<>(60_000, 10, KeyOverflowPolicy.DENY_NEW_KEYS);
+        long now = System.currentTimeMillis();
+        // Holds every insert open until all threads are inserting, so each of them has passed the limit check
+        CountDownLatch inserting = new CountDownLatch(threads);
+        AtomicInteger tracked = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                String userId = "user" + t;
+                futures.add(executor.submit(() -> {
+                    State state = map.getOrCreate(userId, now, id -> {
+                        inserting.countDown();
+                        try {
+                            inserting.await(1, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return new State(now);
+                    });
+                    if (state != null) {
+                        tracked.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(10, map.size(), "the map must fill up to the limit and no further");
+        assertEquals(10, tracked.get(), "only the keys that fit are tracked");
+    }
+
+    @Test
+    void evictionGivesBackTheReservedPlace() {
+        EvictingStateMap<State> map = new EvictingStateMap<>(10, 1, KeyOverflowPolicy.DENY_NEW_KEYS);
+        long now = System.currentTimeMillis();
+        assertThrows(IllegalStateException.class, () -> map.getOrCreate("failed", now, id -> {
+            throw new IllegalStateException("factory failure");
+        }));
+        assertNotNull(map.getOrCreate("first", now, id -> new State(now)), "a failed insert must not keep its place");
+
+        for (int i = 1; i <= 3; i++) {
+            long later = now + 50L * i;
+            assertNotNull(map.getOrCreate("user" + i, later, id -> new State(later)), "the idle key's place is reused");
+        }
+        assertEquals(1, map.size());
+    }
+
+    private static class State extends EvictableState {
+        State(long lastAccessMillis) {
+            super(lastAccessMillis);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.zeta.rate_limiter;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests burst and rate behaviour, retry-after reporting and contention of GcraRateLimiter.
+ */
+class GcraRateLimiterTest {
+
+    @Test
+    void burstThenDenyWithRetryAfter() throws InterruptedException {
+        burstThenDenyWithRetryAfter(new GcraRateLimiter(5, 20));
+    }
+
+    @Test
+    void burstThenDenyWithRetryAfterFromTable() throws InterruptedException {
+        burstThenDenyWithRetryAfter(new GcraRateLimiter(5, 20,
+                new PrimitiveStateTable(10, KeyOverflowPolicy.DENY_NEW_KEYS)));
+    }
+
+    private static void burstThenDenyWithRetryAfter(GcraRateLimiter limiter) throws InterruptedException {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquireOrRetryAfter("user", 1), "the burst capacity must be granted at once");
+        }
+        long retryAfterNanos = limiter.tryAcquireOrRetryAfter("user", 1);
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(50);
+        assertTrue(retryAfterNanos > 0 && retryAfterNanos <= intervalNanos,
+                STR."expected to wait at most one 50ms interval, got \{retryAfterNanos}ns");
+        assertTrue(limiter.retryAfterNanos("user", 1) <= retryAfterNanos, "a deny must not move the arrival time");
+        assertEquals(Long.MAX_VALUE, limiter.tryAcquireOrRetryAfter("user", 6), "more than the capacity never fits");
+
+        TimeUnit.NANOSECONDS.sleep(retryAfterNanos);
+        assertTrue(limiter.tryAcquire("user", 1), "the permit must be available after the reported wait");
+    }
+
+    @Test
+    void noLostOrExtraPermitsUnderContention() throws InterruptedException {
+        int capacity = 50_000;
+        RateLimiter limiter = new GcraRateLimiter(capacity, 0.001);
+        AtomicLong allowed = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[64];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < 2_000; i++) {
+                    if (limiter.allowRequest("hot-user")) {
+                        allowed.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(capacity, allowed.get(), "allowed requests");
+    }
+}
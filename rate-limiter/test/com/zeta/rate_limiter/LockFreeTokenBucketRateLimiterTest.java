@@ -0,0 +1,69 @@
+package com.zeta.rate_limiter;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Contention test for LockFreeTokenBucketRateLimiter: many threads racing on one hot key must never
+ * be handed more tokens than the bucket holds, and must not lose any either.
+ */
+class LockFreeTokenBucketRateLimiterTest {
+
+    private static final int THREADS = 64;
+
+    // With no refill the number of allowed requests must equal the capacity exactly.
+    @Test
+    void noLostOrExtraTokensWithoutRefill() throws InterruptedException {
+        int capacity = 50_000;
+        RateLimiter limiter = new LockFreeTokenBucketRateLimiter(capacity, 0);
+        long allowed = hammer(limiter, "hot-user", 2_000);
+        assertEquals(capacity, allowed, "allowed requests");
+    }
+
+    // With refill enabled, allowed requests are bounded by capacity plus what could refill meanwhile.
+    @Test
+    void neverExceedsCapacityPlusRefill() throws InterruptedException {
+        int capacity = 1_000;
+        double refillRate = 10_000;
+        RateLimiter limiter = new LockFreeTokenBucketRateLimiter(capacity, refillRate);
+        long start = System.nanoTime();
+        long allowed = hammer(limiter, "hot-user", 20_000);
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        long upperBound = capacity + (long) Math.ceil(elapsedSeconds * refillRate) + 1;
+        assertTrue(allowed >= capacity, STR."lost tokens: only \{allowed} of the initial \{capacity} were handed out");
+        assertTrue(allowed <= upperBound, STR."extra tokens: \{allowed} allowed, bound was \{upperBound}");
+    }
+
+    private static long hammer(RateLimiter limiter, String userId, int requestsPerThread) throws InterruptedException {
+        AtomicLong allowed = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long local = 0;
+                for (int i = 0; i < requestsPerThread; i++) {
+                    if (limiter.allowRequest(userId)) {
+                        local++;
+                    }
+                }
+                allowed.addAndGet(local);
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return allowed.get();
+    }
+}
@@ -0,0 +1,112 @@
+package com.zeta.rate_limiter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests MappedStateTable within one JVM and as the shared store of limiters in several JVMs.
+ */
+class MappedStateTableTest {
+
+    private static final int PROCESSES = 4;
+    private static final int THREADS_PER_PROCESS = 8;
+    private static final int REQUESTS_PER_THREAD = 20_000;
+
+    @Test
+    void tablesOnSameFileShareState() throws IOException {
+        Path file = Files.createTempFile("rate-limiter", ".map");
+        try {
+            MappedStateTable first = MappedStateTable.open(file, 100, KeyOverflowPolicy.DENY_NEW_KEYS);
+            MappedStateTable second = MappedStateTable.open(file, 100, KeyOverflowPolicy.DENY_NEW_KEYS);
+            RateLimiter a = new GcraRateLimiter(3, 0.001, first);
+            RateLimiter b = new GcraRateLimiter(3, 0.001, second);
+            assertTrue(a.tryAcquire("user", 2));
+            assertTrue(b.allowRequest("user"), "the second table sees the permits taken through the first");
+            assertTrue(!a.allowRequest("user") && !b.allowRequest("user"), "the shared limit is exhausted");
+            assertEquals(1, second.size());
+            assertThrows(IllegalArgumentException.class, () -> MappedStateTable.open(file, 200, KeyOverflowPolicy.DENY_NEW_KEYS));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void fullTableAppliesOverflowPolicy() throws IOException {
+        Path file = Files.createTempFile("rate-limiter", ".map");
+        try {
+            MappedStateTable table = MappedStateTable.open(file, 2, KeyOverflowPolicy.DENY_NEW_KEYS);
+            assertTrue(table.slotOf("user0") >= 0 && table.slotOf("user1") >= 0);
+            assertEquals(-1, table.slotOf("user2"), "a new user beyond the key limit gets no slot");
+            assertEquals(2, table.size());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void limitIsSharedAcrossProcesses() throws Exception {
+        for (String algorithm : List.of("GCRA", "LOCK_FREE_TOKEN_BUCKET")) {
+            Path file = Files.createTempFile("rate-limiter", ".map");
+            try {
+                int capacity = 10_000;
+                String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+                List<Process> workers = new ArrayList<>();
+                for (int p = 0; p < PROCESSES; p++) {
+                    workers.add(new ProcessBuilder(java, "--enable-preview", "-cp", System.getProperty("java.class.path"),
+                            Worker.class.getName(), file.toString(), algorithm, Integer.toString(capacity))
+                            .redirectError(ProcessBuilder.Redirect.INHERIT)
+                            .start());
+                }
+                long allowed = 0;
+                for (Process worker : workers) {
+                    assertTrue(worker.waitFor(60, TimeUnit.SECONDS), "worker process did not finish");
+                    assertEquals(0, worker.exitValue(), "worker process failed");
+                    allowed += Long.parseLong(new String(worker.getInputStream().readAllBytes(), StandardCharsets.US_ASCII).trim());
+                }
+                assertEquals(capacity, allowed, algorithm + " must allow exactly capacity requests across all processes");
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    //Child process: hammers one user through a limiter on the shared file and prints how many requests passed.
+    static class Worker {
+
+        public static void main(String[] args) throws InterruptedException {
+            MappedStateTable table = MappedStateTable.open(Path.of(args[0]), 1_000, KeyOverflowPolicy.DENY_NEW_KEYS);
+            int capacity = Integer.parseInt(args[2]);
+            // A refill rate this slow adds no permits while the test runs, so capacity is the exact total.
+            RateLimiter limiter = args[1].equals("GCRA")
+                    ? new GcraRateLimiter(capacity, 0.01, table)
+                    : new LockFreeTokenBucketRateLimiter(capacity, 0.01, table);
+            AtomicLong allowed = new AtomicLong();
+            Thread[] threads = new Thread[THREADS_PER_PROCESS];
+            for (int t = 0; t < threads.length; t++) {
+                threads[t] = new Thread(() -> {
+                    for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                        if (limiter.allowRequest("hot-user")) {
+                            allowed.incrementAndGet();
+                        }
+                    }
+                });
+                threads[t].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            System.out.println(allowed.get());
+        }
+    }
+}
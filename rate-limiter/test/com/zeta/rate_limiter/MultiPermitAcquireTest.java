@@ -0,0 +1,57 @@
+package com.zeta.rate_limiter;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests weighted and batch acquisition against every RateLimiter implementation.
+ */
+class MultiPermitAcquireTest {
+
+    @Test
+    void everyLimiterSupportsWeightedAndBatchAcquire() {
+        List<RateLimiter> limiters = List.of(
+                new FixedWindowRateLimiter(10, 60_000),
+                new TokenBucketRateLimiter(10, 0.001),
+                new LockFreeTokenBucketRateLimiter(10, 0.001),
+                new LockFreeTokenBucketRateLimiter(10, 0.001,
+                        new PrimitiveStateTable(100, KeyOverflowPolicy.DENY_NEW_KEYS)),
+                new SlidingWindowRateLimiter(10, 60_000));
+        for (RateLimiter limiter : limiters) {
+            String name = limiter.getClass().getSimpleName();
+            weightedAcquireIsAllOrNothing(limiter, name);
+            batchIsDecidedInOrder(limiter, name);
+            invalidArgumentsAreRejected(limiter, name);
+        }
+    }
+
+    private static void weightedAcquireIsAllOrNothing(RateLimiter limiter, String name) {
+        assertFalse(limiter.tryAcquire("weighted", 11), name + ": more permits than the limit must be denied");
+        assertTrue(limiter.tryAcquire("weighted", 6), name + ": the denied request must not have consumed permits");
+        assertFalse(limiter.tryAcquire("weighted", 5), name + ": only 4 permits are left");
+        assertTrue(limiter.tryAcquire("weighted", 4), name + ": the last 4 permits must be granted");
+        assertFalse(limiter.allowRequest("weighted"), name + ": no permits are left");
+    }
+
+    private static void batchIsDecidedInOrder(RateLimiter limiter, String name) {
+        String[] userIds = {"a", "b", "a", "a", "b"};
+        int[] permits = {7, 10, 3, 1, 1};
+        boolean[] granted = limiter.tryAcquireAll(userIds, permits);
+        boolean[] expected = {true, true, true, false, false};
+        assertArrayEquals(expected, granted, name + ": batch result");
+    }
+
+    private static void invalidArgumentsAreRejected(RateLimiter limiter, String name) {
+        assertThrows(IllegalArgumentException.class, () -> limiter.tryAcquire("invalid", 0), name + ": zero permits");
+        assertThrows(IllegalArgumentException.class,
+                () -> limiter.tryAcquireAll(new String[] {"invalid"}, new int[0]), name + ": mismatched batch arrays");
+        assertThrows(IllegalArgumentException.class,
+                () -> limiter.tryAcquireAll(new String[] {"partial", "partial"}, new int[] {10, 0}), name + ": zero permits in a batch");
+        assertTrue(limiter.tryAcquire("partial", 10), name + ": a rejected batch must not have applied its valid entries");
+    }
+}
@@ -0,0 +1,85 @@
+package com.zeta.rate_limiter;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests PrimitiveStateTable on its own and as the bucket store of LockFreeTokenBucketRateLimiter.
+ */
+class PrimitiveStateTableTest {
+
+    @Test
+    void distinctUsersGetDistinctSlots() {
+        int users = 100_000;
+        PrimitiveStateTable table = new PrimitiveStateTable(users, KeyOverflowPolicy.DENY_NEW_KEYS);
+        for (int i = 0; i < users; i++) {
+            int slot = table.slotOf("user" + i);
+            assertTrue(slot >= 0, "table must have room for maxKeys users");
+            assertTrue(table.compareAndSet(slot, 0, i + 1), "a new user's slot starts empty");
+        }
+        for (int i = 0; i < users; i++) {
+            assertEquals(i + 1, table.get(table.slotOf("user" + i)), "state of another user was overwritten");
+        }
+        assertEquals(users, table.size());
+    }
+
+    @Test
+    void fullTableAppliesOverflowPolicy() {
+        PrimitiveStateTable deny = new PrimitiveStateTable(4, KeyOverflowPolicy.DENY_NEW_KEYS);
+        RateLimiter limiter = new LockFreeTokenBucketRateLimiter(2, 0, deny);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limiter.allowRequest("user" + i), "users below the key limit are tracked");
+        }
+        assertFalse(limiter.allowRequest("user4"), "a new user beyond the key limit must be denied");
+        assertTrue(deny.slotOf("user0") >= 0, "tracked users keep their slot when the table is full");
+
+        PrimitiveStateTable allow = new PrimitiveStateTable(1, KeyOverflowPolicy.ALLOW_UNTRACKED);
+        limiter = new LockFreeTokenBucketRateLimiter(1, 0, allow);
+        assertTrue(limiter.allowRequest("user0") && !limiter.allowRequest("user0"), "the tracked user is limited");
+        assertTrue(limiter.allowRequest("user1") && limiter.allowRequest("user1"), "untracked users are let through");
+    }
+
+    @Test
+    void hotKeyContentionThroughTable() throws InterruptedException {
+        int capacity = 50_000;
+        PrimitiveStateTable table = new PrimitiveStateTable(1_000, KeyOverflowPolicy.DENY_NEW_KEYS);
+        RateLimiter limiter = new LockFreeTokenBucketRateLimiter(capacity, 0, table);
+        AtomicLong allowed = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[64];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < 2_000; i++) {
+                    if (limiter.allowRequest("hot-user")) {
+                        allowed.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(capacity, allowed.get(), "allowed requests");
+    }
+
+    @Test
+    void footprintStaysUnder32BytesPerKey() {
+        int maxKeys = 10_000_000;
+        PrimitiveStateTable table = new PrimitiveStateTable(maxKeys, KeyOverflowPolicy.DENY_NEW_KEYS);
+        double bytesPerKey = (double) table.footprintBytes() / maxKeys;
+        assertTrue(bytesPerKey < 18, STR."expected under 18 bytes per key, got \{bytesPerKey}");
+    }
+}
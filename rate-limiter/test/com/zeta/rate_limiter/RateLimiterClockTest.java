@@ -0,0 +1,79 @@
+package com.zeta.rate_limiter;
+
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives every limiter from a ManualClock, which makes window edges and refills deterministic, and checks
+ * that CoarseClock keeps up with real time.
+ */
+class RateLimiterClockTest {
+
+    @Test
+    void fixedWindowLetsBurstsThroughAtTheEdge() {
+        ManualClock clock = new ManualClock();
+        RateLimiter limiter = new FixedWindowRateLimiter(10, 1_000, Long.MAX_VALUE, KeyOverflowPolicy.DENY_NEW_KEYS, clock);
+        clock.advance(Duration.ofMillis(999));
+        assertTrue(limiter.tryAcquire("user", 10), "the first window has room");
+        clock.advance(Duration.ofMillis(1));
+        assertTrue(limiter.tryAcquire("user", 10), "a fixed window resets at its edge, letting 2x through in 1ms");
+    }
+
+    @Test
+    void slidingWindowHoldsTheLimitAtTheEdge() {
+        ManualClock clock = new ManualClock();
+        RateLimiter limiter = new SlidingWindowRateLimiter(10, 1_000, 10, clock);
+        clock.advance(Duration.ofMillis(999));
+        assertTrue(limiter.tryAcquire("user", 10), "the first window has room");
+        clock.advance(Duration.ofMillis(1));
+        assertFalse(limiter.allowRequest("user"), "the sliding window must still count the burst 1ms ago");
+        clock.advance(Duration.ofMillis(900));
+        assertFalse(limiter.allowRequest("user"), "the burst is still inside the window 900ms later");
+        clock.advance(Duration.ofMillis(50));
+        assertTrue(limiter.tryAcquire("user", 5), "half of the burst's sub-window has slid out");
+        assertFalse(limiter.allowRequest("user"), "and no more than that");
+        clock.advance(Duration.ofMillis(1_050));
+        assertTrue(limiter.tryAcquire("user", 10), "a full window after the last request everything has slid out");
+    }
+
+    @Test
+    void bucketsRefillExactlyWithTheClock() {
+        ManualClock clock = new ManualClock();
+        List<RateLimiter> limiters = List.of(
+                new TokenBucketRateLimiter(5, 10, Long.MAX_VALUE, KeyOverflowPolicy.DENY_NEW_KEYS, clock),
+                new LockFreeTokenBucketRateLimiter(5, 10, null, clock),
+                new GcraRateLimiter(5, 10, null, clock));
+        for (RateLimiter limiter : limiters) {
+            String name = limiter.getClass().getSimpleName();
+            assertTrue(limiter.tryAcquire("user", 5), name + ": the bucket starts full");
+            assertFalse(limiter.allowRequest("user"), name + ": and is now empty");
+            assertEquals(Duration.ofMillis(100).toNanos(), limiter.retryAfterNanos("user", 1),
+                    name + ": one token refills in exactly 100ms");
+        }
+        clock.advance(Duration.ofMillis(99));
+        for (RateLimiter limiter : limiters) {
+            assertFalse(limiter.allowRequest("user"), limiter.getClass().getSimpleName() + ": not refilled yet");
+        }
+        clock.advance(Duration.ofMillis(1));
+        for (RateLimiter limiter : limiters) {
+            String name = limiter.getClass().getSimpleName();
+            assertTrue(limiter.allowRequest("user"), name + ": refilled after 100ms");
+            assertFalse(limiter.allowRequest("user"), name + ": exactly one token was refilled");
+        }
+    }
+
+    @Test
+    void coarseClockFollowsRealTime() throws InterruptedException {
+        try (CoarseClock clock = new CoarseClock(Duration.ofMillis(1))) {
+            long start = clock.nanoTime();
+            Thread.sleep(50);
+            long elapsedMillis = Duration.ofNanos(clock.nanoTime() - start).toMillis();
+            assertTrue(elapsedMillis >= 40 && elapsedMillis < 500, STR."coarse clock advanced \{elapsedMillis}ms in 50ms");
+        }
+    }
+}
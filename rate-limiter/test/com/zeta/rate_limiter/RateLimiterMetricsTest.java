@@ -0,0 +1,98 @@
+package com.zeta.rate_limiter;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests RateLimiterMetrics and the counters, histogram and heavy-hitter tracker behind it.
+ */
+class RateLimiterMetricsTest {
+
+    @Test
+    void countsAllowedAndDenied() {
+        RateLimiterMetrics metrics = new RateLimiterMetrics();
+        RateLimiter limiter = metrics.instrument(new GcraRateLimiter(3, 0.001));
+        for (int i = 0; i < 5; i++) {
+            limiter.allowRequest("user");
+        }
+        limiter.tryAcquireAll(new String[]{"other", "other"}, new int[]{2, 2});
+        RateLimiterMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(4, snapshot.allowed());
+        assertEquals(3, snapshot.denied());
+        assertTrue(snapshot.maxNanos() > 0 && snapshot.p50Nanos() <= snapshot.maxNanos(), "single decisions are timed");
+    }
+
+    @Test
+    void disabledMetricsLeaveLimiterUnwrapped() {
+        RateLimiter limiter = new GcraRateLimiter(3, 1);
+        assertTrue(RateLimiterMetrics.DISABLED.instrument(limiter) == limiter, "disabled metrics must add no wrapper");
+    }
+
+    @Test
+    void histogramQuantilesAreWithinPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long nanos = 1; nanos <= 100_000; nanos++) {
+            histogram.record(nanos * 10);
+        }
+        long[] counts = histogram.countsSnapshot();
+        assertWithin(500_000, LatencyHistogram.valueAtQuantile(counts, 0.5));
+        assertWithin(990_000, LatencyHistogram.valueAtQuantile(counts, 0.99));
+        assertWithin(1_000_000, LatencyHistogram.valueAtQuantile(counts, 1.0));
+        assertEquals(0, LatencyHistogram.valueAtQuantile(new long[counts.length], 0.5));
+        for (long value : new long[]{0, 1, 127, 128, 129, 1_000, 123_456_789}) {
+            long reported = LatencyHistogram.highestValueIn(LatencyHistogram.bucketOf(value));
+            assertTrue(reported >= value && reported <= value + value / 64, value + " reported as " + reported);
+        }
+    }
+
+    @Test
+    void heavyHittersStandOutFromLongTail() {
+        HeavyHitterTracker tracker = new HeavyHitterTracker(3, 1024);
+        for (int round = 0; round < 1_000; round++) {
+            tracker.record("heavy-a");
+            tracker.record("heavy-b");
+            tracker.record("heavy-b");
+            tracker.record("heavy-c");
+            tracker.record("heavy-c");
+            tracker.record("heavy-c");
+            for (int i = 0; i < 20; i++) {
+                tracker.record("light" + (round * 20 + i));
+            }
+        }
+        List<HeavyHitterTracker.HeavyHitter> top = tracker.topK();
+        assertEquals(3, top.size());
+        assertEquals("heavy-c", top.get(0).userId());
+        assertEquals("heavy-b", top.get(1).userId());
+        assertEquals("heavy-a", top.get(2).userId());
+        assertTrue(top.get(0).estimatedRequests() >= 3_000, "count-min estimates never undercount");
+    }
+
+    @Test
+    void hotUserIsCountedExactlyUnderContention() throws InterruptedException {
+        HeavyHitterTracker tracker = new HeavyHitterTracker(2, 1 << 16);
+        int threads = 8;
+        int requestsPerThread = 100_000;
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int t = 0; t < threads; t++) {
+                executor.submit(() -> {
+                    for (int i = 0; i < requestsPerThread; i++) {
+                        tracker.record("hot");
+                    }
+                });
+            }
+        }
+        tracker.record("cold");
+        List<HeavyHitterTracker.HeavyHitter> top = tracker.topK();
+        assertEquals(List.of(new HeavyHitterTracker.HeavyHitter("hot", (long) threads * requestsPerThread),
+                new HeavyHitterTracker.HeavyHitter("cold", 1)), top, "a lone hot user must not lose or gain counts");
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(Math.abs(actual - expected) <= expected / 64, "expected about " + expected + " but was " + actual);
+    }
+}
@@ -0,0 +1,84 @@
+package com.zeta.rate_limiter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Window-boundary test for SlidingWindowRateLimiter: after a full window, a burst just past the window edge
+ * may only take the share of the limit that the expiring sub-window no longer covers, where a fixed window
+ * would let a second full window through. Runs on the monotonic clock, so a round the scheduler delays past a
+ * sub-window edge is repeated.
+ */
+class SlidingWindowRateLimiterTest {
+
+    private static final int MAX_REQUESTS = 10;
+    private static final long WINDOW_MILLIS = 1_000;
+    private static final int SUB_WINDOWS = 10;
+    private static final long SUB_WINDOW_MILLIS = WINDOW_MILLIS / SUB_WINDOWS;
+    private static final int ATTEMPTS = 5;
+    private static final RateLimiterClock CLOCK = RateLimiterClock.MONOTONIC;
+
+    @Test
+    void allowsMaxRequestsPerWindow() {
+        RateLimiter limiter = new SlidingWindowRateLimiter(MAX_REQUESTS, WINDOW_MILLIS, SUB_WINDOWS, CLOCK);
+        assertEquals(MAX_REQUESTS, send(limiter, "user", 2 * MAX_REQUESTS), "one window's worth is allowed");
+    }
+
+    @Test
+    void weightsTheExpiringSubWindowAtTheEdge() throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            RateLimiter limiter = new SlidingWindowRateLimiter(MAX_REQUESTS, WINDOW_MILLIS, SUB_WINDOWS, CLOCK);
+            long first = now() / SUB_WINDOW_MILLIS + 1;
+            sleepUntil(first * SUB_WINDOW_MILLIS);
+            int filled = send(limiter, "user", MAX_REQUESTS);
+            boolean filledInOneSubWindow = now() / SUB_WINDOW_MILLIS == first;
+
+            // Just past the edge sub-window `first` has slid out, but still weighs (SUB_WINDOW_MILLIS - offset) / SUB_WINDOW_MILLIS
+            long edge = (first + SUB_WINDOWS) * SUB_WINDOW_MILLIS;
+            sleepUntil(edge + 1);
+            long startOffset = now() - edge;
+            int afterEdge = send(limiter, "user", MAX_REQUESTS);
+            long endOffset = now() - edge;
+
+            // One sub-window later the filled sub-window no longer counts at all
+            sleepUntil(edge + SUB_WINDOW_MILLIS + 1);
+            int nextSubWindow = send(limiter, "user", MAX_REQUESTS);
+
+            if (!filledInOneSubWindow || endOffset >= SUB_WINDOW_MILLIS) {
+                assertTrue(attempt < ATTEMPTS, "the scheduler kept delaying the test past sub-window edges");
+                continue;
+            }
+            // The n-th request after the edge fits once offset >= n * SUB_WINDOW_MILLIS / MAX_REQUESTS
+            long lower = Math.min(MAX_REQUESTS, startOffset * MAX_REQUESTS / SUB_WINDOW_MILLIS);
+            long upper = endOffset * MAX_REQUESTS / SUB_WINDOW_MILLIS;
+            assertEquals(MAX_REQUESTS, filled, "the first window takes the whole limit");
+            assertTrue(afterEdge >= lower && afterEdge <= upper,
+                    STR."\{afterEdge} allowed \{startOffset}-\{endOffset}ms past the edge, expected \{lower} to \{upper}");
+            assertEquals(MAX_REQUESTS - afterEdge, nextSubWindow, "the rest is available one sub-window later");
+            return;
+        }
+    }
+
+    private static int send(RateLimiter limiter, String userId, int requests) {
+        int allowed = 0;
+        for (int i = 0; i < requests; i++) {
+            if (limiter.allowRequest(userId)) {
+                allowed++;
+            }
+        }
+        return allowed;
+    }
+
+    private static long now() {
+        return CLOCK.millis();
+    }
+
+    private static void sleepUntil(long millis) throws InterruptedException {
+        long remaining;
+        while ((remaining = millis - now()) > 0) {
+            Thread.sleep(remaining);
+        }
+    }
+}
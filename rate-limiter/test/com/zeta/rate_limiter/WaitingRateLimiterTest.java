@@ -0,0 +1,115 @@
+package com.zeta.rate_limiter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests blocking and asynchronous acquisition through WaitingRateLimiter.
+ */
+class WaitingRateLimiterTest {
+
+    @Test
+    void acquireWaitsForTheNextToken() throws InterruptedException {
+        WaitingRateLimiter limiter = new WaitingRateLimiter(new TokenBucketRateLimiter(1, 10));
+        assertTrue(limiter.acquire("user", Duration.ofSeconds(1)), "the first token is available immediately");
+        long start = System.nanoTime();
+        assertTrue(limiter.acquire("user", Duration.ofSeconds(1)), "the next token refills within 100ms");
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(waitedMillis >= 50 && waitedMillis < 500, STR."expected a ~100ms wait, waited \{waitedMillis}ms");
+    }
+
+    @Test
+    void acquireGivesUpAtTimeout() throws InterruptedException {
+        WaitingRateLimiter limiter = new WaitingRateLimiter(new TokenBucketRateLimiter(1, 1.0 / 60));
+        assertTrue(limiter.acquire("user", Duration.ofMillis(50)), "the first token is available immediately");
+        assertFalse(limiter.acquire("user", Duration.ofMillis(50)), "the next token is a minute away");
+        assertFalse(limiter.tryAcquire("user", 1), "the timed-out waiter must not have left permits behind");
+    }
+
+    @Test
+    void waitersAreServedInArrivalOrder() throws Exception {
+        WaitingRateLimiter limiter = new WaitingRateLimiter(new LockFreeTokenBucketRateLimiter(5, 50));
+        assertTrue(limiter.tryAcquire("user", 5), "drain the bucket");
+        CompletableFuture<Void> large = limiter.acquireAsync("user", 5);
+        CompletableFuture<Void> small = limiter.acquireAsync("user", 1);
+        assertFalse(limiter.tryAcquire("user", 1), "new arrivals must not barge ahead of waiters");
+        small.get(2, TimeUnit.SECONDS);
+        assertTrue(large.isDone(), "the earlier, larger request must be granted first");
+    }
+
+    @Test
+    void impossibleRequestsFailFast() {
+        WaitingRateLimiter limiter = new WaitingRateLimiter(new SlidingWindowRateLimiter(3, 1_000));
+        CompletableFuture<Void> tooLarge = limiter.acquireAsync("user", 4);
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> tooLarge.get(1, TimeUnit.SECONDS),
+                "an impossible request must fail instead of waiting");
+        assertInstanceOf(IllegalArgumentException.class, failure.getCause());
+    }
+
+    @Test
+    void limiterFailureOnTheTimerFailsTheWaiters() throws Exception {
+        AtomicBoolean failing = new AtomicBoolean();
+        TokenBucketRateLimiter bucket = new TokenBucketRateLimiter(1, 10);
+        RateLimiter flaky = new RateLimiter() {
+            @Override
+            public boolean tryAcquire(String userId, int permits) {
+                if (failing.get()) {
+                    throw new IllegalStateException("state store unavailable");
+                }
+                return bucket.tryAcquire(userId, permits);
+            }
+
+            @Override
+            public long retryAfterNanos(String userId, int permits) {
+                return bucket.retryAfterNanos(userId, permits);
+            }
+        };
+        WaitingRateLimiter limiter = new WaitingRateLimiter(flaky);
+        assertTrue(limiter.tryAcquire("user", 1), "drain the bucket");
+        CompletableFuture<Void> first = limiter.acquireAsync("user", 1);
+        CompletableFuture<Void> second = limiter.acquireAsync("user", 1);
+        failing.set(true);
+        for (CompletableFuture<Void> waiter : List.of(first, second)) {
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> waiter.get(2, TimeUnit.SECONDS),
+                    "a waiter must not be stranded when the limiter fails on the timer thread");
+            assertInstanceOf(IllegalStateException.class, failure.getCause());
+        }
+        failing.set(false);
+        assertTrue(limiter.acquire("user", Duration.ofSeconds(1)), "the queue must accept new waiters afterwards");
+    }
+
+    @Test
+    void manyVirtualThreadsShareOneKey() throws InterruptedException {
+        int requests = 1_000;
+        WaitingRateLimiter limiter = new WaitingRateLimiter(new LockFreeTokenBucketRateLimiter(10, 5_000));
+        AtomicInteger granted = new AtomicInteger();
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < requests; i++) {
+                executor.submit(() -> {
+                    if (limiter.acquire("hot-user", Duration.ofSeconds(5))) {
+                        granted.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        assertEquals(requests, granted.get(), "all waiters must be served");
+        assertTrue(elapsedSeconds >= (requests - 10) / 5_000.0 * 0.9, STR."served faster than the rate: \{elapsedSeconds}s");
+    }
+}
@@ -0,0 +1,139 @@
+package com.zeta.banking_api.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.zeta.banking_api.entity.Account;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// In-process cache of account balances for getBalance, bounded with Caffeine's W-TinyLFU eviction.
+//
+// Writers publish after their transaction commits: the new balance and version when they have the entity,
+// otherwise an invalidation. Two rules keep a stale value from ever replacing a newer one:
+//  - among writers, an entry is only replaced by one with a higher @Version
+//  - a reader that missed may only fill the entry if no writer touched the account since the reader's
+//    DB read began; writers stamp their accounts in a fixed table, so this needs no per-account memory
+// Stamping and checking the stamp both happen inside the map's compute for the account, so a fill and a write of
+// the same account are serialized: the fill sees the stamp, or the write comes after it and replaces its entry.
+// Entries also expire, which bounds how long any missed invalidation could linger.
+@Component
+public class BalanceCache {
+
+    private static final int WRITE_STAMP_SLOTS = 1 << 16;
+
+    private final boolean enabled;
+    private final Cache<Long, CachedBalance> balances;
+    private final AtomicLong writeClock = new AtomicLong();
+    // Last writeClock value at which an account hashing to the slot was written; collisions only cost a fill
+    private final AtomicLongArray writeStamps = new AtomicLongArray(WRITE_STAMP_SLOTS);
+
+    public BalanceCache(
+            @Value("${banking.balance-cache.enabled:true}") boolean enabled,
+            @Value("${banking.balance-cache.max-size:100000}") long maxSize,
+            @Value("${banking.balance-cache.ttl-seconds:30}") long ttlSeconds
+        ) {
+        this.enabled = enabled;
+        this.balances = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    // Null on a miss; call readStarted before going to the database, then fill with the result
+    public BigDecimal get(Long accountId) {
+        if (!enabled) {
+            return null;
+        }
+        CachedBalance cached = balances.getIfPresent(accountId);
+        return cached == null ? null : cached.balance();
+    }
+
+    // Whether get would hit, without counting towards the stats
+    public boolean contains(Long accountId) {
+        return enabled && balances.asMap().containsKey(accountId);
+    }
+
+    public long readStarted() {
+        return writeClock.get();
+    }
+
+    // Caches what a reader loaded, unless the account was written after the read began
+    public void fill(Account account, long readStartedAt) {
+        if (!enabled) {
+            return;
+        }
+        balances.asMap().compute(account.getId(), (id, cached) -> {
+            if (writeStamps.get(slotOf(id)) > readStartedAt
+                    || cached != null && cached.version() >= account.getVersion()) {
+                return cached;
+            }
+            return new CachedBalance(account.getBalance(), account.getVersion());
+        });
+    }
+
+    // Publishes the account's balance once the current transaction commits; the entity's version is read then,
+    // after the flush that incremented it
+    public void updateAfterCommit(Account account) {
+        if (!enabled) {
+            return;
+        }
+        afterCommit(() -> balances.asMap().compute(account.getId(), (id, cached) -> {
+            stampWrite(id);
+            return cached != null && cached.version() > account.getVersion() ? cached : new CachedBalance(account.getBalance(), account.getVersion());
+        }));
+    }
+
+    // For writes that do not load the entity, such as bulk UPDATE statements
+    public void evictAfterCommit(Long accountId) {
+        if (!enabled) {
+            return;
+        }
+        afterCommit(() -> balances.asMap().compute(accountId, (id, cached) -> {
+            stampWrite(id);
+            return null;
+        }));
+    }
+
+    public Stats stats() {
+        CacheStats stats = balances.stats();
+        return new Stats(enabled, balances.estimatedSize(), stats.hitCount(), stats.missCount(), stats.hitRate(), stats.evictionCount());
+    }
+
+    private void stampWrite(Long accountId) {
+        writeStamps.set(slotOf(accountId), writeClock.incrementAndGet());
+    }
+
+    // Outside a transaction the write is already committed, so it is published straight away
+    private static void afterCommit(Runnable publish) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish.run();
+            }
+        });
+    }
+
+    private static int slotOf(Long accountId) {
+        return (int) ((accountId * 0x9E3779B97F4A7C15L) >>> 48);
+    }
+
+    private record CachedBalance(BigDecimal balance, long version) {
+    }
+
+    public record Stats(boolean enabled, long size, long hits, long misses, double hitRate, long evictions) {
+    }
+}
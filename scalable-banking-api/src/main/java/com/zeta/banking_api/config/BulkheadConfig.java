@@ -0,0 +1,82 @@
+package com.zeta.banking_api.config;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zeta.banking_api.cache.BalanceCache;
+import com.zeta.banking_api.controller.AccountController;
+import com.zeta.banking_api.engine.AccountEngine;
+import com.zeta.banking_api.filter.BulkheadFilter;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+@Configuration
+@ConditionalOnProperty(name = "banking.bulkhead.enabled", havingValue = "true", matchIfMissing = true)
+public class BulkheadConfig {
+
+    private static final Pattern ACCOUNT_OPERATION_PATH = Pattern.compile("/api/accounts/(\\d+)/(debit|credit|balance)");
+
+    // Sized to the connections requests can have unless set, so requests queue here rather than in Hikari while
+    // holding a thread and a transaction's worth of state. Some connections are kept back for background work
+    // (credit coalescer and engine flushes, ledger checkpoints, shard rebalancing), which does not pass the bulkhead.
+    @Bean
+    public FilterRegistrationBean<BulkheadFilter> bulkheadFilter(
+            DataSource dataSource,
+            AccountEngine accountEngine,
+            BalanceCache balanceCache,
+            @Value("${banking.bulkhead.permits:0}") int permits,
+            @Value("${banking.bulkhead.reserved-connections:2}") int reservedConnections,
+            @Value("${banking.bulkhead.max-wait-millis:5000}") long maxWaitMillis
+        ) {
+        int poolSize = dataSource instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : 10;
+        permits = permits(poolSize, reservedConnections, permits);
+        BulkheadFilter filter = new BulkheadFilter(permits, maxWaitMillis, request -> needsNoConnection(request, accountEngine, balanceCache));
+        FilterRegistrationBean<BulkheadFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/accounts/*");
+        // Right behind the rate limiter, so requests it rejects never take a permit
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+
+    // Permits left for requests once the reserved connections are set aside; an explicit count must fit in that
+    static int permits(int poolSize, int reservedConnections, int permits) {
+        if (reservedConnections < 0 || reservedConnections >= poolSize) {
+            throw new IllegalArgumentException("banking.bulkhead.reserved-connections must be between 0 and "
+                    + (poolSize - 1) + " for a pool of " + poolSize + ", was " + reservedConnections);
+        }
+        int available = poolSize - reservedConnections;
+        if (permits <= 0) {
+            return available;
+        }
+        if (permits > available) {
+            throw new IllegalArgumentException("banking.bulkhead.permits is " + permits + ", but only " + available
+                    + " of the pool's " + poolSize + " connections are not reserved");
+        }
+        return permits;
+    }
+
+    // The engine serves debits, credits and balances from memory, unless an Idempotency-Key makes the request look
+    // up and store a record, and a cached balance is answered without a query. A cached entry may be evicted before
+    // the request reads it; that read then runs outside the bulkhead.
+    private static boolean needsNoConnection(HttpServletRequest request, AccountEngine accountEngine, BalanceCache balanceCache) {
+        Matcher matcher = ACCOUNT_OPERATION_PATH.matcher(request.getRequestURI().substring(request.getContextPath().length()));
+        if (!matcher.matches()) {
+            return false;
+        }
+        if (accountEngine.isEnabled()) {
+            return request.getHeader(AccountController.IDEMPOTENCY_KEY_HEADER) == null;
+        }
+        return matcher.group(2).equals("balance") && "GET".equals(request.getMethod())
+                && balanceCache.contains(Long.valueOf(matcher.group(1)));
+    }
+}
@@ -0,0 +1,52 @@
+package com.zeta.banking_api.config;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import com.zeta.banking_api.filter.RateLimitFilter;
+import com.zeta.rate_limiter.CompositeRateLimiter;
+import com.zeta.rate_limiter.CompositeRateLimiter.Tier;
+import com.zeta.rate_limiter.GcraRateLimiter;
+import com.zeta.rate_limiter.KeyOverflowPolicy;
+import com.zeta.rate_limiter.PrimitiveStateTable;
+import com.zeta.rate_limiter.RateLimiter;
+
+@Configuration
+@ConditionalOnProperty(name = "banking.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfig {
+
+    // A request is charged to its client and its account together, or to neither.
+    // Limiter state is held in fixed-size tables; once one is full, new keys are let through unlimited
+    // rather than rejecting clients that did nothing wrong.
+    @Bean
+    public RateLimiter writeRateLimiter(
+            @Value("${banking.rate-limit.client.capacity}") long clientCapacity,
+            @Value("${banking.rate-limit.client.refill-per-second}") double clientRefillPerSecond,
+            @Value("${banking.rate-limit.account.capacity}") long accountCapacity,
+            @Value("${banking.rate-limit.account.refill-per-second}") double accountRefillPerSecond,
+            @Value("${banking.rate-limit.max-keys}") int maxKeys
+        ) {
+        GcraRateLimiter clientLimiter = new GcraRateLimiter(clientCapacity, clientRefillPerSecond,
+                new PrimitiveStateTable(maxKeys, KeyOverflowPolicy.ALLOW_UNTRACKED));
+        GcraRateLimiter accountLimiter = new GcraRateLimiter(accountCapacity, accountRefillPerSecond,
+                new PrimitiveStateTable(maxKeys, KeyOverflowPolicy.ALLOW_UNTRACKED));
+        return new CompositeRateLimiter(List.of(
+                Tier.perGroup("client", clientLimiter, RateLimitFilter::clientOf),
+                Tier.perGroup("account", accountLimiter, RateLimitFilter::accountOf)));
+    }
+
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(RateLimiter writeRateLimiter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(new RateLimitFilter(writeRateLimiter));
+        registration.addUrlPatterns("/api/accounts/*");
+        // Ahead of every other filter, so nothing is done for a request that is about to be rejected
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
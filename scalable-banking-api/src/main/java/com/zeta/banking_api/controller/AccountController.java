@@ -1,48 +1,159 @@
 package com.zeta.banking_api.controller;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import com.zeta.banking_api.dto.BatchRequest;
 import com.zeta.banking_api.dto.DebitRequest;
 import com.zeta.banking_api.dto.TransactionRequest;
+import com.zeta.banking_api.dto.TransferRequest;
+import com.zeta.banking_api.engine.AccountEngine;
 import com.zeta.banking_api.exception.AccountNotFoundException;
+import com.zeta.banking_api.exception.ConcurrentUpdateException;
 import com.zeta.banking_api.exception.InsufficientFundsException;
+import com.zeta.banking_api.exception.OperationNotAvailableException;
+import com.zeta.banking_api.filter.RateLimitFilter;
+import com.zeta.banking_api.service.IdempotencyService;
+import com.zeta.banking_api.service.PostingService;
+import com.zeta.banking_api.service.ShardedAccountService;
+import com.zeta.banking_api.service.TransactionHistoryService;
 import com.zeta.banking_api.service.TransactionService;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
 @RestController
 @RequestMapping("/api/accounts")
 public class AccountController {
 
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final TransactionService transactionService;
+    private final PostingService postingService;
+    private final ShardedAccountService shardedAccountService;
+    private final TransactionHistoryService transactionHistoryService;
+    private final AccountEngine accountEngine;
+    private final IdempotencyService idempotencyService;
 
-    public AccountController(TransactionService transactionService) {
+    public AccountController(
+            TransactionService transactionService,
+            PostingService postingService,
+            ShardedAccountService shardedAccountService,
+            TransactionHistoryService transactionHistoryService,
+            AccountEngine accountEngine,
+            IdempotencyService idempotencyService
+        ) {
         this.transactionService = transactionService;
+        this.postingService = postingService;
+        this.shardedAccountService = shardedAccountService;
+        this.transactionHistoryService = transactionHistoryService;
+        this.accountEngine = accountEngine;
+        this.idempotencyService = idempotencyService;
     }
 
-    // Endpoint for debiting an account
+    // Endpoint for debiting an account. Retries from the same client carrying the same Idempotency-Key get the
+    // first response instead of debiting again.
     @PostMapping("/{accountId}/debit")
-    public ResponseEntity<?> debitAccount(@PathVariable Long accountId, @RequestBody DebitRequest debitRequest) {
+    public CompletableFuture<ResponseEntity<String>> debitAccount(
+            @PathVariable Long accountId,
+            @RequestBody DebitRequest debitRequest,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            HttpServletRequest httpRequest
+        ) {
+        BigDecimal amount = debitRequest.getAmount();
+        return idempotencyService.execute(RateLimitFilter.clientIdOf(httpRequest), idempotencyKey, IdempotencyService.fingerprint("DEBIT", accountId, amount), () -> {
+            CompletableFuture<Void> debit = accountEngine.isEnabled()
+                    ? accountEngine.debit(accountId, amount)
+                    : run(() -> transactionService.debit(accountId, amount));
+            return debit.handle((ignored, failure) -> failure == null ? ResponseEntity.ok("Debit successful") : errorResponse(failure));
+        });
+    }
+
+    @PostMapping("/{accountId}/credit")
+    public CompletableFuture<ResponseEntity<String>> credit(
+            @PathVariable Long accountId,
+            @RequestBody TransactionRequest request,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            HttpServletRequest httpRequest
+        ) {
+        BigDecimal amount = request.getAmount();
+        return idempotencyService.execute(RateLimitFilter.clientIdOf(httpRequest), idempotencyKey, IdempotencyService.fingerprint("CREDIT", accountId, amount), () -> {
+            CompletableFuture<Void> credit = accountEngine.isEnabled()
+                    ? accountEngine.credit(accountId, amount)
+                    : run(() -> transactionService.credit(accountId, amount));
+            return credit.handle((ignored, failure) -> failure == null ? ResponseEntity.ok("Credit successful") : errorResponse(failure));
+        });
+    }
+
+    // Moves money between two accounts in one transaction
+    @PostMapping("/transfer")
+    public ResponseEntity<String> transfer(@RequestBody TransferRequest request) {
         try {
-            transactionService.debit(accountId, debitRequest.getAmount());
-            return ResponseEntity.ok("Debit successful");
-        } catch (InsufficientFundsException e) {
+            postingService.transfer(request.getFromAccountId(), request.getToAccountId(), request.getAmount());
+            return ResponseEntity.ok("Transfer successful");
+        } catch (InsufficientFundsException | IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         } catch (AccountNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (OperationNotAvailableException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An unexpected error occurred");
         }
     }
 
-    @PostMapping("/{accountId}/credit")
-    public ResponseEntity<String> credit(@PathVariable Long accountId, @RequestBody TransactionRequest request) {
+    // Applies all postings in one transaction, or none of them
+    @PostMapping("/batch")
+    public ResponseEntity<String> batch(@RequestBody BatchRequest request) {
+        try {
+            postingService.post(request.getPostings());
+            return ResponseEntity.ok("Posted " + request.getPostings().size() + " postings");
+        } catch (InsufficientFundsException | IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (AccountNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (OperationNotAvailableException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An unexpected error occurred");
+        }
+    }
+
+    // Spreads a hot account's balance over slot rows so its credits stop queueing on one row lock
+    @PostMapping("/{accountId}/shards")
+    public ResponseEntity<String> shard(@PathVariable Long accountId, @RequestParam int slots) {
+        try {
+            shardedAccountService.shard(accountId, slots);
+            return ResponseEntity.ok("Account sharded into " + slots + " slots");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (AccountNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (OperationNotAvailableException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An unexpected error occurred");
+        }
+    }
 
+    // Transaction history, newest first, one page at a time
+    @GetMapping("/{accountId}/transactions")
+    public ResponseEntity<?> transactions(
+            @PathVariable Long accountId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit
+        ) {
         try {
-            transactionService.credit(accountId, request.getAmount());
-            return ResponseEntity.ok("Credit successful");
+            return ResponseEntity.ok(transactionHistoryService.page(accountId, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         } catch (AccountNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
         } catch (Exception e) {
@@ -50,8 +161,51 @@ public class AccountController {
         }
     }
 
+    // Whole history as newline-delimited JSON, streamed as it is read, for exports. It is written on the request
+    // thread rather than returned as a StreamingResponseBody, so a long export is not cut off by the async request
+    // timeout and stays inside the bulkhead until its last line is written.
+    @GetMapping(value = "/{accountId}/transactions", params = "format=ndjson")
+    public void exportTransactions(@PathVariable Long accountId, HttpServletResponse response) throws IOException {
+        try {
+            transactionHistoryService.checkAccountExists(accountId);
+        } catch (AccountNotFoundException e) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+            response.getWriter().write(e.getMessage());
+            return;
+        }
+        response.setContentType("application/x-ndjson");
+        transactionHistoryService.export(accountId, response.getOutputStream());
+    }
+
     @GetMapping("/{accountId}/balance")
-    public ResponseEntity<BigDecimal> getBalance(@PathVariable Long accountId) {
-        return ResponseEntity.ok(transactionService.getBalance(accountId));
+    public CompletableFuture<ResponseEntity<BigDecimal>> getBalance(@PathVariable Long accountId) {
+        CompletableFuture<BigDecimal> balance = accountEngine.isEnabled()
+                ? accountEngine.getBalance(accountId)
+                : CompletableFuture.completedFuture(transactionService.getBalance(accountId));
+        return balance.thenApply(ResponseEntity::ok);
+    }
+
+    // The database-backed services run on the request thread; their outcome is wrapped so that both modes
+    // share one response mapping
+    private static CompletableFuture<Void> run(Runnable operation) {
+        try {
+            operation.run();
+            return CompletableFuture.completedFuture(null);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static ResponseEntity<String> errorResponse(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        if (cause instanceof InsufficientFundsException || cause instanceof IllegalArgumentException) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(cause.getMessage());
+        } else if (cause instanceof AccountNotFoundException) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(cause.getMessage());
+        } else if (cause instanceof ConcurrentUpdateException) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(cause.getMessage());
+        }
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An unexpected error occurred");
     }
 }
@@ -0,0 +1,25 @@
+package com.zeta.banking_api.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.zeta.banking_api.cache.BalanceCache;
+
+@RestController
+@RequestMapping("/api/metrics")
+public class MetricsController {
+
+    private final BalanceCache balanceCache;
+
+    public MetricsController(BalanceCache balanceCache) {
+        this.balanceCache = balanceCache;
+    }
+
+    // Hit and miss counts of the getBalance cache since startup
+    @GetMapping("/balance-cache")
+    public ResponseEntity<BalanceCache.Stats> balanceCache() {
+        return ResponseEntity.ok(balanceCache.stats());
+    }
+}
@@ -0,0 +1,15 @@
+package com.zeta.banking_api.dto;
+
+import java.util.List;
+
+public class BatchRequest {
+    private List<PostingRequest> postings;
+
+    public List<PostingRequest> getPostings() {
+        return postings;
+    }
+
+    public void setPostings(List<PostingRequest> postings) {
+        this.postings = postings;
+    }
+}
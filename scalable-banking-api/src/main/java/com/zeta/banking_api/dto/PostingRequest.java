@@ -0,0 +1,43 @@
+package com.zeta.banking_api.dto;
+
+import java.math.BigDecimal;
+
+// One line of a batch: a debit or credit of one account
+public class PostingRequest {
+    private Long accountId;
+    private String type; // "DEBIT" or "CREDIT"
+    private BigDecimal amount;
+
+    public PostingRequest() {
+    }
+
+    public PostingRequest(Long accountId, String type, BigDecimal amount) {
+        this.accountId = accountId;
+        this.type = type;
+        this.amount = amount;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+}
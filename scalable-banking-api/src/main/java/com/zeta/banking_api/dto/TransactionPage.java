@@ -0,0 +1,22 @@
+package com.zeta.banking_api.dto;
+
+import java.util.List;
+
+public class TransactionPage {
+    private final List<TransactionResponse> transactions;
+    // Pass back as ?cursor= for the next (older) page; null on the last page
+    private final String nextCursor;
+
+    public TransactionPage(List<TransactionResponse> transactions, String nextCursor) {
+        this.transactions = transactions;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<TransactionResponse> getTransactions() {
+        return transactions;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
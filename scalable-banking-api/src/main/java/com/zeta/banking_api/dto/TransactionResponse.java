@@ -0,0 +1,35 @@
+package com.zeta.banking_api.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// One history entry, built directly by the query so no Transaction or Account entity is loaded
+public class TransactionResponse {
+    private final Long id;
+    private final String type;
+    private final BigDecimal amount;
+    private final LocalDateTime timestamp;
+
+    public TransactionResponse(Long id, String type, BigDecimal amount, LocalDateTime timestamp) {
+        this.id = id;
+        this.type = type;
+        this.amount = amount;
+        this.timestamp = timestamp;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+}
@@ -0,0 +1,146 @@
+package com.zeta.banking_api.engine;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.zeta.banking_api.entity.Account;
+import com.zeta.banking_api.entity.Transaction;
+import com.zeta.banking_api.ledger.LedgerService;
+import com.zeta.banking_api.repository.AccountRepository;
+import com.zeta.banking_api.repository.TransactionRepository;
+
+import jakarta.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// In-memory alternative to TransactionService for debits, credits and balances. Accounts are partitioned by
+// ID over single-threaded shards; each shard owns its balances, in minor units, and applies commands one at
+// a time, so there are no locks to contend for and throughput grows with the number of shards.
+//
+// Results complete as soon as the shard has applied the command. Balances and history reach the database
+// afterwards by write-behind, in batches, so a crash loses changes not yet written: this mode trades the
+// durability of every single posting for latency.
+@Service
+public class AccountEngine {
+
+    // Minor units are taken at the scale of the balance column, so every stored balance loads exactly and every
+    // amount accepted here is stored without rounding
+    private static final int SCALE = Account.BALANCE_SCALE;
+
+    private final boolean enabled;
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final EngineShard[] shards;
+    // Loads and write-behind batches; they block on the database, so never on a shard thread
+    private final ExecutorService databaseExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public AccountEngine(
+            AccountRepository accountRepository,
+            TransactionRepository transactionRepository,
+            PlatformTransactionManager transactionManager,
+            LedgerService ledger,
+            @Value("${banking.engine.enabled:false}") boolean enabled,
+            @Value("${banking.engine.shards:0}") int shardCount,
+            @Value("${banking.engine.max-batch-size:1000}") int maxBatchSize
+        ) {
+        if (enabled && ledger.isEnabled()) {
+            throw new IllegalStateException("banking.engine.enabled and banking.ledger.enabled cannot both be on");
+        }
+        this.enabled = enabled;
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        int count = shardCount > 0 ? shardCount : Runtime.getRuntime().availableProcessors();
+        this.shards = new EngineShard[enabled ? count : 0];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new EngineShard(this, i, maxBatchSize);
+            shards[i].start();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public CompletableFuture<Void> debit(Long accountId, BigDecimal amount) {
+        return apply(accountId, true, amount);
+    }
+
+    public CompletableFuture<Void> credit(Long accountId, BigDecimal amount) {
+        return apply(accountId, false, amount);
+    }
+
+    public CompletableFuture<BigDecimal> getBalance(Long accountId) {
+        return shardOf(accountId).balance(accountId).thenApply(this::toAmount);
+    }
+
+    private CompletableFuture<Void> apply(Long accountId, boolean debit, BigDecimal amount) {
+        long minorUnits;
+        try {
+            minorUnits = amount.movePointRight(SCALE).longValueExact();
+        } catch (ArithmeticException e) {
+            return CompletableFuture.failedFuture(
+                    new IllegalArgumentException("Amount must have at most " + SCALE + " decimal places and fit in a long"));
+        }
+        if (minorUnits <= 0) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Amount must be positive"));
+        }
+        return shardOf(accountId).apply(accountId, debit, minorUnits);
+    }
+
+    private EngineShard shardOf(Long accountId) {
+        if (!enabled) {
+            throw new IllegalStateException("The account engine is not enabled");
+        }
+        return shards[Math.floorMod(Long.hashCode(accountId * 0x9E3779B97F4A7C15L), shards.length)];
+    }
+
+    // The account's balance in minor units, or null if it does not exist
+    CompletableFuture<Long> load(long accountId) {
+        return CompletableFuture.supplyAsync(() -> accountRepository.findById(accountId)
+                .map(account -> account.getBalance().movePointRight(SCALE).longValueExact())
+                .orElse(null), databaseExecutor);
+    }
+
+    // Writes one shard's batch in one transaction; balances are absolute, so a batch may safely be written again
+    CompletableFuture<Void> write(WriteBatch batch) {
+        return CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            batch.balances().forEach((accountId, balance) -> accountRepository.setBalance(accountId, toAmount(balance)));
+            List<Transaction> history = new ArrayList<>(batch.history().size());
+            for (Posting posting : batch.history()) {
+                history.add(new Transaction(accountRepository.getReferenceById(posting.accountId()),
+                        posting.type(), toAmount(posting.amount()), posting.timestamp()));
+            }
+            transactionRepository.saveAllInBatches(history);
+        }), databaseExecutor);
+    }
+
+    // Applies what is queued and writes it out before the repositories go away
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (EngineShard shard : shards) {
+            shard.stop(10_000);
+        }
+        databaseExecutor.close();
+    }
+
+    private BigDecimal toAmount(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    record Posting(long accountId, String type, long amount, LocalDateTime timestamp) {
+    }
+
+    // Latest balance of every account the batch touches, and the postings that led there in order
+    record WriteBatch(Map<Long, Long> balances, List<Posting> history) {
+    }
+}
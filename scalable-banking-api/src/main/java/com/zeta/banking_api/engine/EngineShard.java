@@ -0,0 +1,240 @@
+package com.zeta.banking_api.engine;
+
+import com.zeta.banking_api.exception.AccountNotFoundException;
+import com.zeta.banking_api.exception.InsufficientFundsException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// One partition of the account engine. A single thread owns the partition's balances and applies commands
+// in arrival order from a lock-free queue, so no command ever waits on a lock. Changes are handed to the
+// engine for write-behind in batches, one batch in flight at a time so they reach the database in order.
+final class EngineShard implements Runnable {
+
+    private static final long RETRY_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final AccountEngine engine;
+    private final int maxBatchSize;
+    private final Queue<Command> commands = new ConcurrentLinkedQueue<>();
+    private final Thread thread;
+
+    // Everything below is touched only by the shard thread
+    private final LongBalanceMap balances = new LongBalanceMap(1024);
+    // Commands for accounts whose balance is being loaded, in arrival order
+    private final Map<Long, List<Command>> waitingForLoad = new HashMap<>();
+    private Map<Long, Long> changedBalances = new HashMap<>();
+    private List<AccountEngine.Posting> pendingHistory = new ArrayList<>();
+    private boolean flushing;
+    // After a failed write, no new one starts before this nanoTime
+    private long retryFlushAt;
+    private boolean stopping;
+
+    EngineShard(AccountEngine engine, int index, int maxBatchSize) {
+        this.engine = engine;
+        this.maxBatchSize = maxBatchSize;
+        this.thread = new Thread(this, "account-engine-" + index);
+        this.thread.setDaemon(true);
+        this.retryFlushAt = System.nanoTime();
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    // Credits and debits complete once applied in memory; the write to the database follows asynchronously
+    CompletableFuture<Void> apply(long accountId, boolean debit, long amount) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        submit(new Apply(accountId, debit, amount, result));
+        return result;
+    }
+
+    CompletableFuture<Long> balance(long accountId) {
+        CompletableFuture<Long> result = new CompletableFuture<>();
+        submit(new Balance(accountId, result));
+        return result;
+    }
+
+    // Returns once every command submitted before has been applied and written to the database
+    void stop(long timeoutMillis) throws InterruptedException {
+        submit(new Stop());
+        thread.join(timeoutMillis);
+    }
+
+    private void submit(Command command) {
+        commands.offer(command);
+        // Unparking a running thread only sets its permit, and an unpark before park makes park return,
+        // so a wake-up is never lost
+        LockSupport.unpark(thread);
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            Command command = commands.poll();
+            if (command != null) {
+                handle(command);
+                if (pendingHistory.size() >= maxBatchSize) {
+                    startFlush();
+                }
+                continue;
+            }
+            // The queue is drained: a natural point to hand the changes so far to the database
+            startFlush();
+            if (stopping && !flushing && pendingHistory.isEmpty() && waitingForLoad.isEmpty()) {
+                failRemaining();
+                return;
+            }
+            if (pendingHistory.isEmpty() || flushing) {
+                LockSupport.park(this);
+            } else {
+                LockSupport.parkNanos(this, Math.max(1, retryFlushAt - System.nanoTime()));
+            }
+        }
+    }
+
+    private void handle(Command command) {
+        switch (command) {
+            case Apply apply -> {
+                if (whenLoaded(apply.accountId(), apply)) {
+                    applyLoaded(apply);
+                }
+            }
+            case Balance balance -> {
+                if (whenLoaded(balance.accountId(), balance)) {
+                    balance.result().complete(balances.get(balance.accountId()));
+                }
+            }
+            case Loaded loaded -> finishLoad(loaded);
+            case Flushed flushed -> finishFlush(flushed);
+            case Stop stop -> stopping = true;
+        }
+    }
+
+    private void applyLoaded(Apply apply) {
+        long balance = balances.get(apply.accountId());
+        long updated;
+        if (apply.debit()) {
+            if (balance < apply.amount()) {
+                apply.result().completeExceptionally(
+                        new InsufficientFundsException("Insufficient funds in account id: " + apply.accountId()));
+                return;
+            }
+            updated = balance - apply.amount();
+        } else {
+            try {
+                updated = Math.addExact(balance, apply.amount());
+            } catch (ArithmeticException e) {
+                apply.result().completeExceptionally(new IllegalArgumentException("Credit would overflow account " + apply.accountId()));
+                return;
+            }
+        }
+        balances.put(apply.accountId(), updated);
+        changedBalances.put(apply.accountId(), updated);
+        pendingHistory.add(new AccountEngine.Posting(apply.accountId(), apply.debit() ? "DEBIT" : "CREDIT",
+                apply.amount(), LocalDateTime.now()));
+        apply.result().complete(null);
+    }
+
+    // True if the account's balance is in memory; otherwise the command is parked until its load finishes
+    private boolean whenLoaded(long accountId, Command command) {
+        if (balances.containsKey(accountId)) {
+            return true;
+        }
+        List<Command> waiting = waitingForLoad.get(accountId);
+        if (waiting == null) {
+            waiting = new ArrayList<>();
+            waitingForLoad.put(accountId, waiting);
+            // Loaded off the shard thread, which must never block on the database
+            engine.load(accountId).whenComplete((balance, failure) -> submit(new Loaded(accountId, balance, failure)));
+        }
+        waiting.add(command);
+        return false;
+    }
+
+    private void finishLoad(Loaded loaded) {
+        List<Command> waiting = waitingForLoad.remove(loaded.accountId());
+        if (loaded.failure() != null || loaded.balance() == null) {
+            // Misses are not remembered, so an account created later is found
+            RuntimeException failure = loaded.failure() != null
+                    ? new IllegalStateException("Could not load account " + loaded.accountId(), loaded.failure())
+                    : new AccountNotFoundException("Account not found: " + loaded.accountId());
+            for (Command command : waiting) {
+                fail(command, failure);
+            }
+            return;
+        }
+        balances.put(loaded.accountId(), loaded.balance());
+        for (Command command : waiting) {
+            handle(command);
+        }
+    }
+
+    private void startFlush() {
+        if (flushing || pendingHistory.isEmpty() || System.nanoTime() - retryFlushAt < 0) {
+            return;
+        }
+        AccountEngine.WriteBatch batch = new AccountEngine.WriteBatch(changedBalances, pendingHistory);
+        changedBalances = new HashMap<>();
+        pendingHistory = new ArrayList<>();
+        flushing = true;
+        engine.write(batch).whenComplete((ignored, failure) -> submit(new Flushed(batch, failure)));
+    }
+
+    private void finishFlush(Flushed flushed) {
+        flushing = false;
+        if (flushed.failure() == null) {
+            return;
+        }
+        // Put the batch back in front of what came since, and try again after a pause; balances changed
+        // since are newer and win
+        flushed.batch().balances().forEach(changedBalances::putIfAbsent);
+        List<AccountEngine.Posting> history = new ArrayList<>(flushed.batch().history());
+        history.addAll(pendingHistory);
+        pendingHistory = history;
+        retryFlushAt = System.nanoTime() + RETRY_DELAY_NANOS;
+    }
+
+    // Commands that raced with shutdown; nothing will process them any more
+    private void failRemaining() {
+        Command command;
+        while ((command = commands.poll()) != null) {
+            fail(command, new IllegalStateException("The account engine is shutting down"));
+        }
+    }
+
+    private static void fail(Command command, RuntimeException failure) {
+        switch (command) {
+            case Apply apply -> apply.result().completeExceptionally(failure);
+            case Balance balance -> balance.result().completeExceptionally(failure);
+            default -> {
+            }
+        }
+    }
+
+    private sealed interface Command permits Apply, Balance, Loaded, Flushed, Stop {
+    }
+
+    private record Apply(long accountId, boolean debit, long amount, CompletableFuture<Void> result) implements Command {
+    }
+
+    private record Balance(long accountId, CompletableFuture<Long> result) implements Command {
+    }
+
+    // balance is null if the account does not exist
+    private record Loaded(long accountId, Long balance, Throwable failure) implements Command {
+    }
+
+    private record Flushed(AccountEngine.WriteBatch batch, Throwable failure) implements Command {
+    }
+
+    private record Stop() implements Command {
+    }
+}
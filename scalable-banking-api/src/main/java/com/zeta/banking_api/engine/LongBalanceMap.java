@@ -0,0 +1,75 @@
+package com.zeta.banking_api.engine;
+
+import java.util.Arrays;
+
+// Account ID to balance in minor units, open addressing with linear probing over two parallel long arrays,
+// so a lookup touches no boxed objects. Confined to one shard thread, so it is not thread-safe.
+final class LongBalanceMap {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private long[] values;
+    private int size;
+
+    LongBalanceMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+        keys = new long[capacity];
+        values = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    boolean containsKey(long key) {
+        return keys[indexOf(key)] == key;
+    }
+
+    // Only meaningful for a key that is present
+    long get(long key) {
+        return values[indexOf(key)];
+    }
+
+    void put(long key, long value) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Unsupported key: " + key);
+        }
+        int index = indexOf(key);
+        if (keys[index] != key) {
+            if (size + 1 > keys.length / 2) {
+                grow();
+                index = indexOf(key);
+            }
+            keys[index] = key;
+            size++;
+        }
+        values[index] = value;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Slot holding the key, or the empty slot where it would go
+    private int indexOf(long key) {
+        int mask = keys.length - 1;
+        int index = (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        while (keys[index] != key && keys[index] != EMPTY) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new long[oldValues.length * 2];
+        Arrays.fill(keys, EMPTY);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int index = indexOf(oldKeys[i]);
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+}
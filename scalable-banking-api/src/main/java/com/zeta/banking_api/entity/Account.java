@@ -6,19 +6,35 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 @Entity
 @Table(name = "accounts")
 public class Account {
 
+    public static final int BALANCE_SCALE = 2;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence: IDs are reserved 50 at a time, so inserts need no round-trip per ID and can be batched
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "accounts_seq")
+    @SequenceGenerator(name = "accounts_seq", sequenceName = "accounts_seq", allocationSize = 50)
     private Long id;
 
-    @Column(nullable = false)
+    // Hibernate's default for BigDecimal, spelled out because the account engine keeps balances at this scale
+    @Column(nullable = false, precision = 38, scale = BALANCE_SCALE)
     private BigDecimal balance;
 
+    // Bumped on every update, so optimistic writers can detect a concurrent change
+    @Version
+    private Long version;
+
+    // Number of AccountSlot rows the balance is spread over; 0 for an ordinary account.
+    // A sharded account's balance is this row's balance plus the balances of its slots.
+    @Column(nullable = false)
+    private int slotCount;
+
     // Constructors
     public Account() {
     }
@@ -43,4 +59,16 @@ public class Account {
     public void setBalance(BigDecimal balance) {
         this.balance = balance;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    public void setSlotCount(int slotCount) {
+        this.slotCount = slotCount;
+    }
 }
@@ -0,0 +1,61 @@
+package com.zeta.banking_api.entity;
+
+import java.math.BigDecimal;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+// One share of a sharded account's balance. Credits go to a single random slot, so concurrent
+// credits of a hot account lock different rows instead of queueing on the account row.
+@Entity
+@Table(name = "account_slots", uniqueConstraints = @UniqueConstraint(columnNames = {"account_id", "slot"}))
+public class AccountSlot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account_slots_seq")
+    @SequenceGenerator(name = "account_slots_seq", sequenceName = "account_slots_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(nullable = false)
+    private int slot;
+
+    @Column(nullable = false)
+    private BigDecimal balance;
+
+    public AccountSlot() {
+    }
+
+    public AccountSlot(Long accountId, int slot, BigDecimal balance) {
+        this.accountId = accountId;
+        this.slot = slot;
+        this.balance = balance;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+}
@@ -0,0 +1,59 @@
+package com.zeta.banking_api.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+
+// The response given to the first request with an Idempotency-Key, replayed to its retries
+@Entity
+@Table(name = "idempotency_records", indexes = @Index(name = "idx_idempotency_records_created_at", columnList = "createdAt"))
+public class IdempotencyRecord {
+
+    // The client's ID, '|' and its Idempotency-Key, each at most 255 characters
+    @Id
+    @Column(name = "idempotency_key", length = 511)
+    private String key;
+
+    // What the request asked for, so a key reused for a different request is refused rather than replayed
+    @Column(nullable = false)
+    private String fingerprint;
+
+    @Column(nullable = false)
+    private int status;
+
+    @Column(length = 1000)
+    private String body;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public IdempotencyRecord() {
+    }
+
+    public IdempotencyRecord(String key, String fingerprint, int status, String body) {
+        this.key = key;
+        this.fingerprint = fingerprint;
+        this.status = status;
+        this.body = body;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
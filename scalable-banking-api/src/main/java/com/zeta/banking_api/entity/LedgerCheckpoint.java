@@ -0,0 +1,33 @@
+package com.zeta.banking_api.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// How far into the ledger journal the accounts table is up to date. There is a single row, written in the
+// same transaction as the balances it describes, so on startup the journal is replayed from exactly there.
+@Entity
+@Table(name = "ledger_checkpoints")
+public class LedgerCheckpoint {
+
+    public static final Long ID = 1L;
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private long journalPosition;
+
+    public LedgerCheckpoint() {
+    }
+
+    public LedgerCheckpoint(long journalPosition) {
+        this.id = ID;
+        this.journalPosition = journalPosition;
+    }
+
+    public long getJournalPosition() {
+        return journalPosition;
+    }
+}
@@ -3,25 +3,32 @@ package com.zeta.banking_api.entity;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transactions")
+// History is read per account, newest first, by keyset on (timestamp, id); this index serves it without a sort
+@Table(name = "transactions", indexes = @Index(name = "idx_transactions_account_timestamp_id", columnList = "account_id, timestamp, id"))
 public class Transaction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence rather than IDENTITY, which would force Hibernate to insert rows one statement at a time
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    // Lazy: history is read through DTO projections, which never need the account loaded
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "account_id", nullable = false)
     private Account account;
 
@@ -42,4 +49,10 @@ public class Transaction {
         this.type = type;
         this.amount = amount;
     }
+
+    // For postings recorded elsewhere first, such as the ledger journal, and written to history later
+    public Transaction(Account account, String type, BigDecimal amount, LocalDateTime timestamp) {
+        this(account, type, amount);
+        this.timestamp = timestamp;
+    }
 }
@@ -0,0 +1,7 @@
+package com.zeta.banking_api.exception;
+
+public class ConcurrentUpdateException extends RuntimeException {
+    public ConcurrentUpdateException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.zeta.banking_api.exception;
+
+// The operation exists but is switched off by the mode the service runs in, such as ledger or engine mode
+public class OperationNotAvailableException extends RuntimeException {
+    public OperationNotAvailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,75 @@
+package com.zeta.banking_api.filter;
+
+import java.io.IOException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.zeta.rate_limiter.RateLimiter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Rejects debit and credit requests over the client's or the account's limit with 429 and Retry-After.
+// It runs ahead of the DispatcherServlet, so a rejected request never opens a transaction or waits on a row lock.
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    public static final String CLIENT_ID_HEADER = "X-Client-Id";
+    private static final Pattern WRITE_PATH = Pattern.compile("/api/accounts/(\\d+)/(debit|credit)");
+    private static final char KEY_SEPARATOR = '|';
+
+    private final RateLimiter rateLimiter;
+
+    public RateLimitFilter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || !WRITE_PATH.matcher(pathOf(request)).matches();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Matcher matcher = WRITE_PATH.matcher(pathOf(request));
+        matcher.matches();
+        String key = clientIdOf(request) + KEY_SEPARATOR + matcher.group(1);
+
+        if (rateLimiter.allowRequest(key)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        // Whole seconds, rounded up, so a client honouring the header does not come back too early
+        long retryAfterNanos = rateLimiter.retryAfterNanos(key, 1);
+        long retryAfterSeconds = Math.max(1, (retryAfterNanos + 999_999_999) / 1_000_000_000);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType("text/plain");
+        response.getWriter().write("Too many requests, retry after " + retryAfterSeconds + "s");
+    }
+
+    // Limiter keys are "clientId|accountId"; these split them again for the client and account tiers
+    public static String clientOf(String key) {
+        return key.substring(0, key.lastIndexOf(KEY_SEPARATOR));
+    }
+
+    public static String accountOf(String key) {
+        return key.substring(key.lastIndexOf(KEY_SEPARATOR) + 1);
+    }
+
+    // Requests without a client ID are limited, and their idempotency keys scoped, per remote address
+    public static String clientIdOf(HttpServletRequest request) {
+        String clientId = request.getHeader(CLIENT_ID_HEADER);
+        return clientId == null || clientId.isBlank() ? request.getRemoteAddr() : clientId;
+    }
+
+    private static String pathOf(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
@@ -0,0 +1,242 @@
+package com.zeta.banking_api.ledger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+// Append-only file of postings, written through memory-mapped regions and made durable by group fsync.
+//
+// Records have a fixed size and carry a CRC, so the end of the journal is the first record that does not check out;
+// a write torn by a crash ends it there. Each run also stamps its records with a generation higher than any before
+// it, so records left beyond a torn one by an earlier run can never be mistaken for a continuation.
+//
+// Appends must be serialized by the caller. awaitDurable may be called from any number of threads: whichever
+// finds no fsync running issues one covering everything appended so far, and the others wait for it.
+public final class LedgerJournal implements Closeable {
+
+    static final int RECORD_SIZE = 64;
+    private static final int CRC_OFFSET = RECORD_SIZE - Integer.BYTES;
+    private static final int READ_BUFFER_SIZE = RECORD_SIZE * 1024;
+    private static final byte CREDIT = 0;
+    private static final byte DEBIT = 1;
+
+    private final FileChannel channel;
+    private final int regionSize;
+    private final CRC32C appendCrc = new CRC32C();
+    // Mapped regions that may still hold bytes not yet forced; the last one is being appended to
+    private final Deque<Region> regions = new ConcurrentLinkedDeque<>();
+    private long generation;
+    private volatile long writePosition = -1;
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Condition flushed = flushLock.newCondition();
+    private volatile long durablePosition;
+    private boolean flushing;
+
+    public LedgerJournal(Path path, int regionSize) throws IOException {
+        if (regionSize <= 0 || regionSize % RECORD_SIZE != 0) {
+            throw new IllegalArgumentException("regionSize must be a positive multiple of " + RECORD_SIZE);
+        }
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.regionSize = regionSize;
+    }
+
+    // Feeds every valid entry from the given position on to the handler and returns the position after the last one,
+    // which is where appends will go. Must be called once, before the first append.
+    public long replay(long from, Consumer<Entry> handler) throws IOException {
+        if (writePosition >= 0) {
+            throw new IllegalStateException("The journal has already been replayed");
+        }
+        long[] lastGeneration = {0};
+        long end = scan(from, channel.size(), true, lastGeneration, handler);
+        // Clock-based so that it also beats generations of a tail this replay did not reach
+        generation = Math.max(lastGeneration[0] + 1, System.currentTimeMillis());
+        durablePosition = end;
+        writePosition = end;
+        return end;
+    }
+
+    // Reads entries in [from, to), all of which must have been appended and made durable
+    public void read(long from, long to, Consumer<Entry> handler) throws IOException {
+        long end = scan(from, to, false, new long[]{0}, handler);
+        if (end != to) {
+            throw new IllegalStateException("Journal entry at " + end + " is corrupt");
+        }
+    }
+
+    // Returns the position after the entry; pass it to awaitDurable
+    public long append(Entry entry) throws IOException {
+        long position = writePosition;
+        if (position < 0) {
+            throw new IllegalStateException("The journal must be replayed before it is appended to");
+        }
+        Region region = regions.peekLast();
+        if (region == null || position >= region.end()) {
+            region = map(position);
+        }
+        long unscaled;
+        try {
+            unscaled = entry.amount().unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount has too many digits for the journal: " + entry.amount());
+        }
+        MappedByteBuffer buffer = region.buffer();
+        int offset = (int) (position - region.start());
+        buffer.putLong(offset, entry.accountId());
+        buffer.putLong(offset + 8, unscaled);
+        buffer.putLong(offset + 16, toEpochMicros(entry.timestamp()));
+        buffer.putLong(offset + 24, generation);
+        buffer.putInt(offset + 32, entry.amount().scale());
+        buffer.put(offset + 36, "DEBIT".equals(entry.type()) ? DEBIT : CREDIT);
+        appendCrc.reset();
+        appendCrc.update(buffer.slice(offset, CRC_OFFSET));
+        buffer.putInt(offset + CRC_OFFSET, (int) appendCrc.getValue());
+        writePosition = position + RECORD_SIZE;
+        return writePosition;
+    }
+
+    public long position() {
+        return writePosition;
+    }
+
+    // Returns once everything before the position is on disk
+    public void awaitDurable(long position) throws IOException {
+        while (durablePosition < position) {
+            flushLock.lock();
+            try {
+                if (durablePosition >= position) {
+                    return;
+                }
+                if (flushing) {
+                    flushed.awaitUninterruptibly();
+                    continue;
+                }
+                flushing = true;
+            } finally {
+                flushLock.unlock();
+            }
+
+            long from = durablePosition;
+            long to = writePosition;
+            boolean forced = false;
+            try {
+                force(from, to);
+                forced = true;
+            } finally {
+                flushLock.lock();
+                try {
+                    if (forced) {
+                        durablePosition = to;
+                    }
+                    flushing = false;
+                    flushed.signalAll();
+                } finally {
+                    flushLock.unlock();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (writePosition > 0) {
+            awaitDurable(writePosition);
+        }
+        regions.clear();
+        channel.close();
+    }
+
+    private Region map(long position) throws IOException {
+        long start = position - position % regionSize;
+        Region region = new Region(start, channel.map(FileChannel.MapMode.READ_WRITE, start, regionSize));
+        // Mapping grew the file; make the new length durable along with it
+        channel.force(true);
+        regions.addLast(region);
+        return region;
+    }
+
+    private void force(long from, long to) {
+        Region last = regions.peekLast();
+        for (Region region : regions) {
+            long lo = Math.max(from, region.start());
+            long hi = Math.min(to, region.end());
+            if (lo < hi) {
+                region.buffer().force((int) (lo - region.start()), (int) (hi - lo));
+            }
+        }
+        // Fully forced regions are unreferenced here and unmapped once collected
+        regions.removeIf(region -> region != last && region.end() <= to);
+    }
+
+    // Reads records in [from, to) until one is invalid, or, when stopAtInvalid, until one comes from an older run
+    private long scan(long from, long to, boolean stopAtInvalid, long[] lastGeneration, Consumer<Entry> handler) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        CRC32C crc = new CRC32C();
+        long position = from;
+        while (position < to) {
+            buffer.clear().limit((int) Math.min(READ_BUFFER_SIZE, to - position));
+            int read = channel.read(buffer, position);
+            if (read < RECORD_SIZE) {
+                return position;
+            }
+            byte[] bytes = buffer.array();
+            for (int offset = 0; offset + RECORD_SIZE <= read; offset += RECORD_SIZE) {
+                crc.reset();
+                crc.update(bytes, offset, CRC_OFFSET);
+                long recordGeneration = buffer.getLong(offset + 24);
+                if ((int) crc.getValue() != buffer.getInt(offset + CRC_OFFSET)
+                        || (stopAtInvalid && recordGeneration < lastGeneration[0])) {
+                    return position;
+                }
+                lastGeneration[0] = recordGeneration;
+                BigDecimal amount = new BigDecimal(BigInteger.valueOf(buffer.getLong(offset + 8)), buffer.getInt(offset + 32));
+                handler.accept(new Entry(
+                        buffer.getLong(offset),
+                        buffer.get(offset + 36) == DEBIT ? "DEBIT" : "CREDIT",
+                        amount,
+                        fromEpochMicros(buffer.getLong(offset + 16))));
+                position += RECORD_SIZE;
+            }
+        }
+        return position;
+    }
+
+    // Timestamps are stored as the LocalDateTime's own fields, read as UTC, so they come back exactly as written
+    private static long toEpochMicros(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + timestamp.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromEpochMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000), 0, ZoneOffset.UTC)
+                .plus(Math.floorMod(micros, 1_000_000), ChronoUnit.MICROS);
+    }
+
+    public record Entry(long accountId, String type, BigDecimal amount, LocalDateTime timestamp) {
+    }
+
+    private record Region(long start, MappedByteBuffer buffer) {
+        long end() {
+            return start + buffer.capacity();
+        }
+    }
+}
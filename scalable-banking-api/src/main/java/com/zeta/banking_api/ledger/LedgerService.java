@@ -0,0 +1,272 @@
+package com.zeta.banking_api.ledger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.zeta.banking_api.entity.Account;
+import com.zeta.banking_api.entity.LedgerCheckpoint;
+import com.zeta.banking_api.entity.Transaction;
+import com.zeta.banking_api.exception.AccountNotFoundException;
+import com.zeta.banking_api.exception.InsufficientFundsException;
+import com.zeta.banking_api.ledger.LedgerJournal.Entry;
+import com.zeta.banking_api.repository.AccountRepository;
+import com.zeta.banking_api.repository.LedgerCheckpointRepository;
+import com.zeta.banking_api.repository.TransactionRepository;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Event-sourced mode for debits and credits: each posting is appended to the journal and applied to a balance
+// held in memory, and the caller returns once a group fsync covers it. No row is locked on this path.
+//
+// The accounts table is a snapshot: a checkpoint periodically writes the balances changed since the last one,
+// the history rows for the journal entries in between, and the journal position they reach, all in one
+// transaction. Startup loads the balances from the table and replays the journal from that position.
+// Transaction history therefore lags by up to one checkpoint interval.
+@Service
+public class LedgerService {
+
+    // History rows built from the journal per saveAllInBatches call during a checkpoint
+    private static final int HISTORY_CHUNK_SIZE = 5000;
+
+    private final boolean enabled;
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final LedgerCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final LedgerJournal journal;
+    private final Map<Long, BigDecimal> balances = new ConcurrentHashMap<>();
+    // Keeps the journal order and the order balances change in the same; held only for the in-memory work
+    private final ReentrantLock appendLock = new ReentrantLock();
+    // Balances changed since the last checkpoint; guarded by appendLock
+    private Map<Long, BigDecimal> changedBalances = new HashMap<>();
+    private volatile long checkpointPosition;
+    // A scheduled checkpoint and the one run on shutdown may overlap; each must see the other's position
+    private final ReentrantLock checkpointLock = new ReentrantLock();
+    // Set once shutdown has closed the journal, so a scheduled checkpoint running after it does nothing; guarded by checkpointLock
+    private boolean closed;
+    // First journal I/O failure. After it, memory may hold postings the journal lacks or was never told about, so
+    // writes and checkpoints stop (fail-stop) until a restart rebuilds the balances from the journal.
+    private volatile IOException journalFailure;
+
+    public LedgerService(
+            AccountRepository accountRepository,
+            TransactionRepository transactionRepository,
+            LedgerCheckpointRepository checkpointRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${banking.ledger.enabled:false}") boolean enabled,
+            @Value("${banking.ledger.journal-path:data/ledger.journal}") String journalPath,
+            @Value("${banking.ledger.region-size-mb:64}") int regionSizeMb
+        ) throws IOException {
+        this.enabled = enabled;
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.journal = enabled ? new LedgerJournal(Path.of(journalPath), regionSizeMb << 20) : null;
+        if (enabled) {
+            recover(journalPath);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void debit(Long accountId, BigDecimal amount) {
+        append(accountId, "DEBIT", amount, "Account not found with id: " + accountId);
+    }
+
+    public void credit(Long accountId, BigDecimal amount) {
+        append(accountId, "CREDIT", amount, "Account not found: " + accountId);
+    }
+
+    public BigDecimal getBalance(Long accountId) {
+        BigDecimal balance = balances.get(accountId);
+        return balance != null ? balance : load(accountId, "Account not found: " + accountId);
+    }
+
+    // Balances are published before the fsync that covers them, so a reader may briefly see a posting that a crash
+    // would lose; the posting's own caller is only answered once it is durable. Should that fsync fail, the posting
+    // stays visible in memory, which is why the ledger then refuses every further write.
+    private void append(Long accountId, String type, BigDecimal amount, String notFoundMessage) {
+        if (!balances.containsKey(accountId)) {
+            load(accountId, notFoundMessage);
+        }
+        long end;
+        appendLock.lock();
+        try {
+            checkWritable();
+            BigDecimal balance = balances.get(accountId);
+            if (type.equals("DEBIT") && balance.compareTo(amount) < 0) {
+                throw new InsufficientFundsException("Insufficient funds in account id: " + accountId);
+            }
+            BigDecimal updated = type.equals("DEBIT") ? balance.subtract(amount) : balance.add(amount);
+            end = journal.append(new Entry(accountId, type, amount, LocalDateTime.now()));
+            balances.put(accountId, updated);
+            changedBalances.put(accountId, updated);
+        } catch (IOException e) {
+            throw failStop(e);
+        } finally {
+            appendLock.unlock();
+        }
+        awaitDurable(end);
+    }
+
+    // Accounts created after startup: the table is current for them, since only checkpoints write balances
+    private BigDecimal load(Long accountId, String notFoundMessage) {
+        Account account = accountRepository.findById(accountId)
+                .orElseThrow(() -> new AccountNotFoundException(notFoundMessage));
+        BigDecimal loaded = balances.putIfAbsent(accountId, account.getBalance());
+        return loaded != null ? loaded : account.getBalance();
+    }
+
+    // Writes everything journaled since the last checkpoint to the database
+    @Scheduled(fixedDelayString = "${banking.ledger.checkpoint-interval-millis:10000}")
+    public void checkpoint() {
+        if (!enabled) {
+            return;
+        }
+        checkpointLock.lock();
+        try {
+            checkpointLocked();
+        } finally {
+            checkpointLock.unlock();
+        }
+    }
+
+    private void checkpointLocked() {
+        if (closed) {
+            return;
+        }
+        if (journalFailure != null) {
+            // Memory no longer matches the journal; the restart replays the journal from the last checkpoint instead
+            return;
+        }
+        long position;
+        Map<Long, BigDecimal> changed;
+        appendLock.lock();
+        try {
+            position = journal.position();
+            changed = changedBalances;
+            changedBalances = new HashMap<>();
+        } finally {
+            appendLock.unlock();
+        }
+        long from = checkpointPosition;
+        if (position == from) {
+            return;
+        }
+
+        try {
+            // A checkpoint may only point past entries that a restart will find in the journal
+            awaitDurable(position);
+            transactionTemplate.executeWithoutResult(status -> {
+                changed.forEach(accountRepository::setBalance);
+                writeHistory(from, position);
+                checkpointRepository.save(new LedgerCheckpoint(position));
+            });
+            checkpointPosition = position;
+        } catch (RuntimeException e) {
+            // Retried by the next checkpoint; balances changed in the meantime are newer and win
+            appendLock.lock();
+            try {
+                changed.forEach(changedBalances::putIfAbsent);
+            } finally {
+                appendLock.unlock();
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        checkpointLock.lock();
+        try {
+            try {
+                checkpointLocked();
+            } finally {
+                closed = true;
+                journal.close();
+            }
+        } finally {
+            checkpointLock.unlock();
+        }
+    }
+
+    private void writeHistory(long from, long to) {
+        List<Transaction> history = new ArrayList<>(HISTORY_CHUNK_SIZE);
+        try {
+            journal.read(from, to, entry -> {
+                history.add(new Transaction(accountRepository.getReferenceById(entry.accountId()),
+                        entry.type(), entry.amount(), entry.timestamp()));
+                if (history.size() == HISTORY_CHUNK_SIZE) {
+                    transactionRepository.saveAllInBatches(history);
+                    history.clear();
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        transactionRepository.saveAllInBatches(history);
+    }
+
+    // Latest snapshot plus the journal tail written after it
+    private void recover(String journalPath) throws IOException {
+        for (Object[] row : accountRepository.findAllBalances()) {
+            balances.put((Long) row[0], (BigDecimal) row[1]);
+        }
+        LedgerCheckpoint checkpoint = checkpointRepository.findById(LedgerCheckpoint.ID).orElse(null);
+        long from = checkpoint == null ? 0 : checkpoint.getJournalPosition();
+        long end = journal.replay(from, entry -> {
+            BigDecimal change = entry.type().equals("DEBIT") ? entry.amount().negate() : entry.amount();
+            changedBalances.put(entry.accountId(), balances.merge(entry.accountId(), change, BigDecimal::add));
+        });
+        if (checkpoint == null) {
+            if (end > 0) {
+                throw new IllegalStateException("Ledger journal " + journalPath
+                        + " has entries but the database has no checkpoint; it belongs to another database");
+            }
+            transactionTemplate.executeWithoutResult(status -> checkpointRepository.save(new LedgerCheckpoint(0)));
+        }
+        checkpointPosition = from;
+    }
+
+    private void awaitDurable(long position) {
+        try {
+            journal.awaitDurable(position);
+        } catch (IOException e) {
+            throw failStop(e);
+        }
+    }
+
+    private UncheckedIOException failStop(IOException e) {
+        if (journalFailure == null) {
+            journalFailure = e;
+        }
+        return new UncheckedIOException(e);
+    }
+
+    private void checkWritable() {
+        IOException failure = journalFailure;
+        if (failure != null) {
+            throw new UncheckedIOException("The ledger journal failed; writes are refused until a restart", failure);
+        }
+    }
+}
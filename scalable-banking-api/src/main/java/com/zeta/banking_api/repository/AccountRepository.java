@@ -2,12 +2,16 @@ package com.zeta.banking_api.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import com.zeta.banking_api.entity.Account;
 
 import jakarta.persistence.LockModeType;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface AccountRepository extends JpaRepository<Account, Long> {
@@ -16,4 +20,35 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT a FROM Account a WHERE a.id = :accountId")
 Optional<Account> findByIdForUpdate(@Param("accountId") Long accountId);
+
+    // Locks all the given accounts. Rows are read, and so locked, in ID order; callers that lock
+    // several accounts do it in ascending ID order so two of them can never wait on each other.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.id IN :accountIds ORDER BY a.id")
+    List<Account> findAllByIdForUpdate(@Param("accountIds") Collection<Long> accountIds);
+
+    // Accounts whose balance is spread over slot rows, as [id, slotCount]
+    @Query("SELECT a.id, a.slotCount FROM Account a WHERE a.slotCount > 0")
+    List<Object[]> findShardedAccounts();
+
+    // Debit in one statement: the row lock is held only while it executes.
+    // Bulk updates bypass @Version, so they bump the version themselves to keep optimistic writers correct.
+    // Returns 0 if the account does not exist or has less than the amount.
+    @Modifying
+    @Query("UPDATE Account a SET a.balance = a.balance - :amount, a.version = a.version + 1 WHERE a.id = :accountId AND a.balance >= :amount")
+    int debitIfSufficientFunds(@Param("accountId") Long accountId, @Param("amount") BigDecimal amount);
+
+    // Returns 0 if the account does not exist
+    @Modifying
+    @Query("UPDATE Account a SET a.balance = a.balance + :amount, a.version = a.version + 1 WHERE a.id = :accountId")
+    int creditIfExists(@Param("accountId") Long accountId, @Param("amount") BigDecimal amount);
+
+    // Every account's balance as [id, balance], without loading the entities
+    @Query("SELECT a.id, a.balance FROM Account a")
+    List<Object[]> findAllBalances();
+
+    // Overwrites the balance; for the ledger checkpoint, which owns balances while ledger mode is on
+    @Modifying
+    @Query("UPDATE Account a SET a.balance = :balance, a.version = a.version + 1 WHERE a.id = :accountId")
+    int setBalance(@Param("accountId") Long accountId, @Param("balance") BigDecimal balance);
 }
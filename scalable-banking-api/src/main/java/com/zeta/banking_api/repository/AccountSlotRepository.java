@@ -0,0 +1,32 @@
+package com.zeta.banking_api.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.zeta.banking_api.entity.AccountSlot;
+
+import jakarta.persistence.LockModeType;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+public interface AccountSlotRepository extends JpaRepository<AccountSlot, Long> {
+
+    // Locks only the one slot row, and only while the statement runs
+    @Modifying
+    @Query("UPDATE AccountSlot s SET s.balance = s.balance + :amount WHERE s.accountId = :accountId AND s.slot = :slot")
+    int creditSlot(@Param("accountId") Long accountId, @Param("slot") int slot, @Param("amount") BigDecimal amount);
+
+    // Locks all slots of the account, always in slot order
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM AccountSlot s WHERE s.accountId = :accountId ORDER BY s.slot")
+    List<AccountSlot> findAllByAccountIdForUpdate(@Param("accountId") Long accountId);
+
+    // Account row plus slots in one statement, so a concurrent rebalance is never seen half done
+    @Query("SELECT a.balance + COALESCE((SELECT SUM(s.balance) FROM AccountSlot s WHERE s.accountId = a.id), 0)"
+            + " FROM Account a WHERE a.id = :accountId")
+    Optional<BigDecimal> findTotalBalance(@Param("accountId") Long accountId);
+}
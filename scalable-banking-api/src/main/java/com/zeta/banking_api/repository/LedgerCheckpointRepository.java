@@ -0,0 +1,8 @@
+package com.zeta.banking_api.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.zeta.banking_api.entity.LedgerCheckpoint;
+
+public interface LedgerCheckpointRepository extends JpaRepository<LedgerCheckpoint, Long> {
+}
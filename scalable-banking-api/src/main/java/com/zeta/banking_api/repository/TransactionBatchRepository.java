@@ -0,0 +1,11 @@
+package com.zeta.banking_api.repository;
+
+import java.util.List;
+
+import com.zeta.banking_api.entity.Transaction;
+
+public interface TransactionBatchRepository {
+
+    // Bulk history write: inserts in JDBC batches and keeps the persistence context small however many rows there are
+    void saveAllInBatches(List<Transaction> transactions);
+}
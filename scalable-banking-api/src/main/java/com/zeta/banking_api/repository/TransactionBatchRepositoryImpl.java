@@ -0,0 +1,43 @@
+package com.zeta.banking_api.repository;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.zeta.banking_api.entity.Transaction;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+// Picked up by Spring Data as the implementation of TransactionBatchRepository for TransactionRepository
+class TransactionBatchRepositoryImpl implements TransactionBatchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final int batchSize;
+
+    TransactionBatchRepositoryImpl(@Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    // Flushing every batchSize rows sends exactly one JDBC batch each time, and detaching the flushed rows
+    // then lets them be garbage collected instead of being dirty-checked again at every later flush.
+    // Only the rows persisted here are detached: accounts and other entities the caller is working on stay
+    // managed, although the flushes also write any changes already made to them.
+    @Override
+    @Transactional
+    public void saveAllInBatches(List<Transaction> transactions) {
+        for (int i = 0; i < transactions.size(); i++) {
+            entityManager.persist(transactions.get(i));
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                for (int j = i + 1 - batchSize; j <= i; j++) {
+                    entityManager.detach(transactions.get(j));
+                }
+            }
+        }
+        entityManager.flush();
+    }
+}
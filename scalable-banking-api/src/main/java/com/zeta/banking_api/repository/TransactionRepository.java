@@ -1,8 +1,33 @@
 package com.zeta.banking_api.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import com.zeta.banking_api.dto.TransactionResponse;
 import com.zeta.banking_api.entity.Transaction;
 
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, TransactionBatchRepository {
+
+    // Newest history first; keyset pagination on (timestamp, id) via idx_transactions_account_timestamp_id,
+    // so a page costs the same however deep into the history it is
+    @Query("SELECT new com.zeta.banking_api.dto.TransactionResponse(t.id, t.type, t.amount, t.timestamp)"
+            + " FROM Transaction t WHERE t.account.id = :accountId"
+            + " ORDER BY t.timestamp DESC, t.id DESC")
+    List<TransactionResponse> findLatest(@Param("accountId") Long accountId, Limit limit);
+
+    // The page after the entry (beforeTimestamp, beforeId)
+    @Query("SELECT new com.zeta.banking_api.dto.TransactionResponse(t.id, t.type, t.amount, t.timestamp)"
+            + " FROM Transaction t WHERE t.account.id = :accountId"
+            + " AND (t.timestamp < :beforeTimestamp OR (t.timestamp = :beforeTimestamp AND t.id < :beforeId))"
+            + " ORDER BY t.timestamp DESC, t.id DESC")
+    List<TransactionResponse> findBefore(
+            @Param("accountId") Long accountId,
+            @Param("beforeTimestamp") LocalDateTime beforeTimestamp,
+            @Param("beforeId") Long beforeId,
+            Limit limit);
 }
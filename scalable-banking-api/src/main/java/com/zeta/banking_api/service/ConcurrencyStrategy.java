@@ -0,0 +1,11 @@
+package com.zeta.banking_api.service;
+
+// How TransactionService keeps concurrent debits and credits of one account from overwriting each other
+public enum ConcurrencyStrategy {
+    // Lock the account row (SELECT ... FOR UPDATE) for the whole transaction
+    PESSIMISTIC,
+    // Read without locking and let the @Version check reject a conflicting write, then retry with jittered backoff
+    OPTIMISTIC,
+    // Optimistic for accounts that rarely conflict, pessimistic for accounts whose recent conflict rate is high
+    ADAPTIVE
+}
@@ -0,0 +1,47 @@
+package com.zeta.banking_api.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Per-account conflict rate for the ADAPTIVE strategy: an exponentially weighted average of how often an
+// optimistic write hit a version conflict. Accounts share a fixed number of slots by hash, so memory stays
+// bounded however many accounts there are; two accounts in one slot just share a rate. Updates are racy,
+// which can drop an observation now and then; that is fine for a heuristic.
+class ConflictRateTracker {
+
+    private static final double WEIGHT = 0.05;   // ~20 most recent observations dominate the average
+
+    private final AtomicLongArray rates;   // Double bits per slot
+    private final double pessimisticAbove;
+
+    ConflictRateTracker(int slots, double pessimisticAbove) {
+        this.rates = new AtomicLongArray(slots);
+        this.pessimisticAbove = pessimisticAbove;
+    }
+
+    boolean preferPessimistic(Long accountId) {
+        return rate(accountId) > pessimisticAbove;
+    }
+
+    // Pessimistic writes never conflict; counting them as successes lets a cooled-down account go optimistic again
+    void recordSuccess(Long accountId) {
+        update(accountId, 0);
+    }
+
+    void recordConflict(Long accountId) {
+        update(accountId, 1);
+    }
+
+    double rate(Long accountId) {
+        return Double.longBitsToDouble(rates.get(slotOf(accountId)));
+    }
+
+    private void update(Long accountId, double observation) {
+        int slot = slotOf(accountId);
+        double rate = Double.longBitsToDouble(rates.get(slot));
+        rates.set(slot, Double.doubleToRawLongBits(rate + WEIGHT * (observation - rate)));
+    }
+
+    private int slotOf(Long accountId) {
+        return Math.floorMod(Long.hashCode(accountId * 0x9E3779B97F4A7C15L), rates.length());
+    }
+}
@@ -0,0 +1,149 @@
+package com.zeta.banking_api.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.zeta.banking_api.cache.BalanceCache;
+import com.zeta.banking_api.entity.Account;
+import com.zeta.banking_api.entity.Transaction;
+import com.zeta.banking_api.exception.AccountNotFoundException;
+import com.zeta.banking_api.repository.AccountRepository;
+import com.zeta.banking_api.repository.TransactionRepository;
+
+import jakarta.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Group commit for credits: concurrent credits of one account are collected for a short window and then
+// applied together, with one row lock, one balance update and one batch of Transaction inserts in a single
+// DB transaction. A credit waits at most the window plus that transaction; under load, one lock/commit cycle
+// serves a whole batch instead of each credit queueing for the row lock on its own.
+@Service
+public class CreditCoalescer {
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BalanceCache balanceCache;
+    private final long windowMicros;
+    private final int maxBatchSize;
+    private final ConcurrentHashMap<Long, PendingBatch> pendingBatches = new ConcurrentHashMap<>();
+    // The timer only hands batches over; the DB work runs on virtual threads so a slow commit never delays other timers
+    private final ScheduledThreadPoolExecutor timer;
+    private final ExecutorService flushExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public CreditCoalescer(
+            AccountRepository accountRepository,
+            TransactionRepository transactionRepository,
+            PlatformTransactionManager transactionManager,
+            BalanceCache balanceCache,
+            @Value("${banking.coalescing.window-micros:300}") long windowMicros,
+            @Value("${banking.coalescing.max-batch-size:500}") int maxBatchSize
+        ) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.balanceCache = balanceCache;
+        this.windowMicros = windowMicros;
+        this.maxBatchSize = maxBatchSize;
+        this.timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "credit-coalescer-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timer.setRemoveOnCancelPolicy(true);
+    }
+
+    // Completes once the credit is committed, or exceptionally with the reason its batch failed
+    public CompletableFuture<Void> credit(Long accountId, BigDecimal amount) {
+        PendingCredit credit = new PendingCredit(amount, new CompletableFuture<>());
+        PendingBatch[] full = new PendingBatch[1];
+        pendingBatches.compute(accountId, (id, batch) -> {
+            if (batch == null) {
+                PendingBatch opened = new PendingBatch(id);
+                timer.schedule(() -> closeAndFlush(opened), windowMicros, TimeUnit.MICROSECONDS);
+                batch = opened;
+            }
+            batch.credits.add(credit);
+            if (batch.credits.size() < maxBatchSize) {
+                return batch;
+            }
+            // Full: take it out of the map now so later credits open a new batch
+            full[0] = batch;
+            return null;
+        });
+        if (full[0] != null) {
+            flushExecutor.execute(() -> flush(full[0]));
+        }
+        return credit.result;
+    }
+
+    // The window is over; flush the batch unless it filled up and was flushed already
+    private void closeAndFlush(PendingBatch batch) {
+        if (pendingBatches.remove(batch.accountId, batch)) {
+            flushExecutor.execute(() -> flush(batch));
+        }
+    }
+
+    // Credits cannot fail one by one: either the account exists and every credit in the batch applies, or none does
+    private void flush(PendingBatch batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Account account = accountRepository.findByIdForUpdate(batch.accountId)
+                        .orElseThrow(() -> new AccountNotFoundException("Account not found: " + batch.accountId));
+                BigDecimal total = BigDecimal.ZERO;
+                List<Transaction> history = new ArrayList<>(batch.credits.size());
+                for (PendingCredit credit : batch.credits) {
+                    total = total.add(credit.amount);
+                    history.add(new Transaction(account, "CREDIT", credit.amount));
+                }
+                account.setBalance(account.getBalance().add(total));
+                accountRepository.save(account);
+                transactionRepository.saveAllInBatches(history);
+                balanceCache.updateAfterCommit(account);
+            });
+        } catch (Throwable e) {
+            // Errors too: a caller whose credit is never completed would wait forever
+            for (PendingCredit credit : batch.credits) {
+                credit.result.completeExceptionally(e);
+            }
+            if (e instanceof Error error) {
+                throw error;
+            }
+            return;
+        }
+        for (PendingCredit credit : batch.credits) {
+            credit.result.complete(null);
+        }
+    }
+
+    // Open batches still get their timer and flush, so no caller is left waiting on shutdown
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        timer.shutdown();
+        timer.awaitTermination(1, TimeUnit.SECONDS);
+        flushExecutor.close();
+    }
+
+    // Only touched inside pendingBatches.compute until it is removed from the map, then only by its flush
+    private static final class PendingBatch {
+        final Long accountId;
+        final List<PendingCredit> credits = new ArrayList<>();
+
+        PendingBatch(Long accountId) {
+            this.accountId = accountId;
+        }
+    }
+
+    private record PendingCredit(BigDecimal amount, CompletableFuture<Void> result) {
+    }
+}
@@ -0,0 +1,184 @@
+package com.zeta.banking_api.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zeta.banking_api.entity.IdempotencyRecord;
+import com.zeta.banking_api.repository.IdempotencyRecordRepository;
+
+import jakarta.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+// Runs a request with an Idempotency-Key at most once and gives every retry the first request's response.
+// Keys are scoped to the client (X-Client-Id, as for rate limiting), so two clients never share one.
+//  - a retry of a finished request is answered from a bounded in-memory cache: one hash lookup
+//  - a retry arriving while the first is still running waits for the same result instead of running again;
+//    running attempts are held outside the bounded cache, so its size limit can never evict one
+//  - responses are also kept in the idempotency_records table, for retries after a restart or an eviction;
+//    the table is only read when the key is not in memory
+// Only final outcomes are kept: a 5xx, 409 or 429 may go differently next time, so the key is released for a retry.
+// The record is written after the posting commits, in its own transaction; a crash between the two lets one
+// retry run the posting again.
+@Service
+public class IdempotencyService {
+
+    public static final int MAX_KEY_LENGTH = 255;
+    public static final int MAX_CLIENT_ID_LENGTH = 255;
+    private static final char SCOPE_SEPARATOR = '|';
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private final IdempotencyRecordRepository recordRepository;
+    private final Duration ttl;
+    // Attempts whose operation is still running; each leaves once its outcome is known
+    private final ConcurrentHashMap<String, Attempt> running = new ConcurrentHashMap<>();
+    // Final outcomes, bounded and expiring; the table answers for whatever this has dropped
+    private final Cache<String, Attempt> finished;
+    // Records are written off the thread that completed the request, which may be an engine shard thread
+    private final ExecutorService recordExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public IdempotencyService(
+            IdempotencyRecordRepository recordRepository,
+            @Value("${banking.idempotency.ttl-hours:24}") long ttlHours,
+            @Value("${banking.idempotency.max-size:100000}") long maxSize
+        ) {
+        this.recordRepository = recordRepository;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.finished = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    // What a debit or credit asks for; equal amounts of different scale are the same request
+    public static String fingerprint(String type, Long accountId, BigDecimal amount) {
+        return type + "|" + accountId + "|" + (amount == null ? null : amount.stripTrailingZeros().toPlainString());
+    }
+
+    // Runs the operation unless a request of the same client with the same key has run or is running; without a
+    // key it always runs
+    public CompletableFuture<ResponseEntity<String>> execute(
+            String clientId,
+            String idempotencyKey,
+            String fingerprint,
+            Supplier<CompletableFuture<ResponseEntity<String>>> operation
+        ) {
+        if (idempotencyKey == null) {
+            return operation.get();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("Idempotency-Key must have between 1 and " + MAX_KEY_LENGTH + " characters"));
+        }
+        if (clientId.length() > MAX_CLIENT_ID_LENGTH) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("X-Client-Id must have at most " + MAX_CLIENT_ID_LENGTH + " characters"));
+        }
+        String key = clientId + SCOPE_SEPARATOR + idempotencyKey;
+
+        Attempt done = finished.getIfPresent(key);
+        if (done != null) {
+            return replay(done, fingerprint);
+        }
+        Attempt attempt = new Attempt(fingerprint, new CompletableFuture<>());
+        Attempt first = running.putIfAbsent(key, attempt);
+        if (first != null) {
+            return replay(first, fingerprint);
+        }
+        // The first attempt may have finished between the two lookups
+        done = finished.getIfPresent(key);
+        if (done != null) {
+            running.remove(key, attempt);
+            return replay(done, fingerprint);
+        }
+
+        IdempotencyRecord record;
+        try {
+            record = recordRepository.findById(key)
+                    .filter(stored -> stored.getCreatedAt().isAfter(LocalDateTime.now().minus(ttl)))
+                    .orElse(null);
+        } catch (RuntimeException e) {
+            running.remove(key, attempt);
+            attempt.response().completeExceptionally(e);
+            throw e;
+        }
+        if (record != null) {
+            if (!record.getFingerprint().equals(fingerprint)) {
+                running.remove(key, attempt);
+                attempt.response().complete(keyReused());
+            } else {
+                attempt.response().complete(ResponseEntity.status(record.getStatus()).body(record.getBody()));
+                finished.put(key, attempt);
+                running.remove(key, attempt);
+            }
+            return attempt.response();
+        }
+
+        CompletableFuture<ResponseEntity<String>> result;
+        try {
+            result = operation.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        result.whenCompleteAsync((response, failure) -> {
+            if (failure == null && isFinal(response)) {
+                try {
+                    recordRepository.save(new IdempotencyRecord(key, fingerprint, response.getStatusCode().value(), response.getBody()));
+                } catch (RuntimeException e) {
+                    // The response stands; the in-memory entry still covers retries until it expires or is evicted
+                    log.warn("Could not store the idempotency record for key {}; retries after a restart or an eviction will run again", key, e);
+                }
+                // Into the cache before leaving the running map, so a retry always finds it in one of the two
+                finished.put(key, attempt);
+            }
+            running.remove(key, attempt);
+            if (failure != null) {
+                attempt.response().completeExceptionally(failure);
+            } else {
+                attempt.response().complete(response);
+            }
+        }, recordExecutor);
+        return attempt.response();
+    }
+
+    @Scheduled(fixedDelayString = "${banking.idempotency.purge-interval-millis:3600000}")
+    public void purgeExpired() {
+        recordRepository.deleteCreatedBefore(LocalDateTime.now().minus(ttl));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        recordExecutor.close();
+    }
+
+    private static boolean isFinal(ResponseEntity<String> response) {
+        HttpStatus status = HttpStatus.resolve(response.getStatusCode().value());
+        return status != null && !status.is5xxServerError()
+                && status != HttpStatus.CONFLICT && status != HttpStatus.TOO_MANY_REQUESTS;
+    }
+
+    private static CompletableFuture<ResponseEntity<String>> replay(Attempt attempt, String fingerprint) {
+        return attempt.fingerprint().equals(fingerprint) ? attempt.response() : CompletableFuture.completedFuture(keyReused());
+    }
+
+    private static ResponseEntity<String> keyReused() {
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .body("Idempotency-Key was already used for a different request");
+    }
+
+    private record Attempt(String fingerprint, CompletableFuture<ResponseEntity<String>> response) {
+    }
+}
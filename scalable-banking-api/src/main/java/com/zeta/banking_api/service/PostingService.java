@@ -0,0 +1,150 @@
+package com.zeta.banking_api.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.zeta.banking_api.cache.BalanceCache;
+import com.zeta.banking_api.dto.PostingRequest;
+import com.zeta.banking_api.engine.AccountEngine;
+import com.zeta.banking_api.entity.Account;
+import com.zeta.banking_api.entity.AccountSlot;
+import com.zeta.banking_api.entity.Transaction;
+import com.zeta.banking_api.exception.AccountNotFoundException;
+import com.zeta.banking_api.exception.InsufficientFundsException;
+import com.zeta.banking_api.exception.OperationNotAvailableException;
+import com.zeta.banking_api.ledger.LedgerService;
+import com.zeta.banking_api.repository.AccountRepository;
+import com.zeta.banking_api.repository.TransactionRepository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+// Applies many debits and credits atomically: either every posting of a request is applied or none is
+@Service
+public class PostingService {
+
+    // Accounts locked per SELECT ... FOR UPDATE; chunks are taken in ascending ID order
+    private static final int LOCK_CHUNK_SIZE = 500;
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final BalanceCache balanceCache;
+    private final LedgerService ledger;
+    private final AccountEngine accountEngine;
+    private final ShardedAccountService shardedAccounts;
+    private final int maxPostings;
+
+    public PostingService(
+            AccountRepository accountRepository,
+            TransactionRepository transactionRepository,
+            BalanceCache balanceCache,
+            LedgerService ledger,
+            AccountEngine accountEngine,
+            ShardedAccountService shardedAccounts,
+            @Value("${banking.postings.max-per-request:10000}") int maxPostings
+        ) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.balanceCache = balanceCache;
+        this.ledger = ledger;
+        this.accountEngine = accountEngine;
+        this.shardedAccounts = shardedAccounts;
+        this.maxPostings = maxPostings;
+    }
+
+    @Transactional
+    public void transfer(Long fromAccountId, Long toAccountId, BigDecimal amount) {
+        if (fromAccountId == null || fromAccountId.equals(toAccountId)) {
+            throw new IllegalArgumentException("Transfer needs two different accounts");
+        }
+        post(List.of(
+                new PostingRequest(fromAccountId, "DEBIT", amount),
+                new PostingRequest(toAccountId, "CREDIT", amount)));
+    }
+
+    // Postings are applied in the given order, so a debit can be covered by an earlier credit in the same batch
+    @Transactional
+    public void post(List<PostingRequest> postings) {
+        if (ledger.isEnabled() || accountEngine.isEnabled()) {
+            // The ledger or the engine owns balances in memory; writing the accounts table here would be overwritten
+            throw new OperationNotAvailableException("Transfers and batch postings are not available in ledger or engine mode");
+        }
+        validate(postings);
+        Map<Long, Account> accounts = lockAccounts(postings);
+        // Slots are locked after every account row, as ShardedAccountService does, in ascending account ID order
+        Map<Long, List<AccountSlot>> slots = new TreeMap<>();
+        for (Account account : accounts.values()) {
+            // Read from the locked row rather than the routing map, so an account sharded just before is seen
+            if (account.getSlotCount() > 0) {
+                slots.put(account.getId(), shardedAccounts.lockSlots(account.getId()));
+            }
+        }
+
+        List<Transaction> history = new ArrayList<>(postings.size());
+        for (PostingRequest posting : postings) {
+            Account account = accounts.get(posting.getAccountId());
+            List<AccountSlot> accountSlots = slots.get(account.getId());
+            if (posting.getType().equals("CREDIT")) {
+                // A sharded account's credit stays on its row until the next rebalance
+                account.setBalance(account.getBalance().add(posting.getAmount()));
+            } else if (accountSlots != null) {
+                ShardedAccountService.debitLocked(account, accountSlots, posting.getAmount());
+            } else if (account.getBalance().compareTo(posting.getAmount()) < 0) {
+                throw new InsufficientFundsException("Insufficient funds in account id: " + account.getId());
+            } else {
+                account.setBalance(account.getBalance().subtract(posting.getAmount()));
+            }
+            history.add(new Transaction(account, posting.getType(), posting.getAmount()));
+        }
+        // Balances are written by dirty checking on the first flush, one batched UPDATE per account
+        // rather than per posting; history rows follow in JDBC batches
+        transactionRepository.saveAllInBatches(history);
+        for (Account account : accounts.values()) {
+            if (!slots.containsKey(account.getId())) {
+                balanceCache.updateAfterCommit(account);
+            }
+        }
+    }
+
+    // Locks every account the postings touch, in ascending ID order so that concurrent batches cannot deadlock
+    private Map<Long, Account> lockAccounts(List<PostingRequest> postings) {
+        TreeSet<Long> accountIds = new TreeSet<>();
+        for (PostingRequest posting : postings) {
+            accountIds.add(posting.getAccountId());
+        }
+        Map<Long, Account> accounts = new TreeMap<>();
+        List<Long> chunk = new ArrayList<>(LOCK_CHUNK_SIZE);
+        for (Long accountId : accountIds) {
+            chunk.add(accountId);
+            if (chunk.size() == LOCK_CHUNK_SIZE || accountId.equals(accountIds.last())) {
+                for (Account account : accountRepository.findAllByIdForUpdate(chunk)) {
+                    accounts.put(account.getId(), account);
+                }
+                chunk.clear();
+            }
+        }
+        if (accounts.size() < accountIds.size()) {
+            accountIds.removeAll(accounts.keySet());
+            throw new AccountNotFoundException("Account not found: " + accountIds.first());
+        }
+        return accounts;
+    }
+
+    private void validate(List<PostingRequest> postings) {
+        if (postings == null || postings.isEmpty() || postings.size() > maxPostings) {
+            throw new IllegalArgumentException("A batch must have between 1 and " + maxPostings + " postings");
+        }
+        for (PostingRequest posting : postings) {
+            if (posting.getAccountId() == null
+                    || !("DEBIT".equals(posting.getType()) || "CREDIT".equals(posting.getType()))
+                    || posting.getAmount() == null || posting.getAmount().signum() <= 0) {
+                throw new IllegalArgumentException("Each posting needs an account ID, a type of DEBIT or CREDIT and a positive amount");
+            }
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.zeta.banking_api.service;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.zeta.banking_api.cache.BalanceCache;
+import com.zeta.banking_api.engine.AccountEngine;
+import com.zeta.banking_api.entity.Account;
+import com.zeta.banking_api.entity.AccountSlot;
+import com.zeta.banking_api.entity.Transaction;
+import com.zeta.banking_api.exception.AccountNotFoundException;
+import com.zeta.banking_api.exception.InsufficientFundsException;
+import com.zeta.banking_api.exception.OperationNotAvailableException;
+import com.zeta.banking_api.ledger.LedgerService;
+import com.zeta.banking_api.repository.AccountRepository;
+import com.zeta.banking_api.repository.AccountSlotRepository;
+import com.zeta.banking_api.repository.TransactionRepository;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Opt-in mode for hot accounts: the balance is spread over slot rows so credits run in parallel.
+//  - credit: one conditional UPDATE of a random slot; the account row is not locked
+//  - debit: locks the account row, then every slot in slot order, and takes the amount from the fullest
+//  - balance: account row plus all slots, read in one statement
+// Transfers and batch postings lock the slots too and debit the same way; their credits land on the account
+// row, and the rebalancer moves them into the slots.
+// Sharding an account publishes its routing before the balance moves. A caller that was routed the ordinary way
+// just before that still reaches the account row after the move, so the ordinary paths check the row's slot count
+// before reporting insufficient funds, and hand the debit over here when it is set.
+@Service
+public class ShardedAccountService {
+
+    private static final int MAX_SLOTS = 64;
+
+    private final AccountRepository accountRepository;
+    private final AccountSlotRepository accountSlotRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BalanceCache balanceCache;
+    private final LedgerService ledger;
+    private final AccountEngine accountEngine;
+    // Sharded account IDs and their slot counts, so ordinary accounts are routed without a query.
+    // The app runs on one node (in-memory H2), so this map is the single source of truth after startup.
+    // An account is added while shard() holds its row lock, and removed again if that transaction rolls back.
+    private final Map<Long, Integer> slotCounts = new ConcurrentHashMap<>();
+
+    public ShardedAccountService(
+            AccountRepository accountRepository,
+            AccountSlotRepository accountSlotRepository,
+            TransactionRepository transactionRepository,
+            PlatformTransactionManager transactionManager,
+            BalanceCache balanceCache,
+            LedgerService ledger,
+            AccountEngine accountEngine
+        ) {
+        this.accountRepository = accountRepository;
+        this.accountSlotRepository = accountSlotRepository;
+        this.transactionRepository = transactionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.balanceCache = balanceCache;
+        this.ledger = ledger;
+        this.accountEngine = accountEngine;
+        for (Object[] row : accountRepository.findShardedAccounts()) {
+            slotCounts.put((Long) row[0], (Integer) row[1]);
+        }
+    }
+
+    public boolean isSharded(Long accountId) {
+        return slotCounts.containsKey(accountId);
+    }
+
+    // Spreads the account's balance over the given number of slot rows
+    public void shard(Long accountId, int slots) {
+        if (slots < 2 || slots > MAX_SLOTS) {
+            throw new IllegalArgumentException("slots must be between 2 and " + MAX_SLOTS);
+        }
+        if (ledger.isEnabled() || accountEngine.isEnabled()) {
+            // In those modes a balance is a single in-memory value with no row locks to spread out
+            throw new OperationNotAvailableException("Accounts cannot be sharded in ledger or engine mode");
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            Account account = accountRepository.findByIdForUpdate(accountId)
+                    .orElseThrow(() -> new AccountNotFoundException("Account not found: " + accountId));
+            if (account.getSlotCount() > 0) {
+                throw new IllegalArgumentException("Account " + accountId + " is already sharded");
+            }
+            // Route to the slots before moving the balance: debits then wait on the row lock held here, and
+            // balance reads see either the old row or the committed slots
+            slotCounts.put(accountId, slots);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        slotCounts.remove(accountId);
+                    }
+                }
+            });
+            List<AccountSlot> accountSlots = new ArrayList<>(slots);
+            for (int slot = 0; slot < slots; slot++) {
+                accountSlots.add(new AccountSlot(accountId, slot, BigDecimal.ZERO));
+            }
+            spreadEvenly(account, accountSlots);
+            account.setSlotCount(slots);
+            accountSlotRepository.saveAll(accountSlots);
+            // Sharded balances are always read from the slots; drop the copy cached while the account was ordinary
+            balanceCache.evictAfterCommit(accountId);
+        });
+    }
+
+    public void credit(Long accountId, BigDecimal amount) {
+        int slot = ThreadLocalRandom.current().nextInt(slotCounts.get(accountId));
+        transactionTemplate.executeWithoutResult(status -> {
+            // History row first: its foreign key check touches the account row, and every path here
+            // reaches the account row before any slot row
+            transactionRepository.saveAndFlush(new Transaction(accountRepository.getReferenceById(accountId), "CREDIT", amount));
+            if (accountSlotRepository.creditSlot(accountId, slot, amount) == 0
+                    // No slot yet: the account is still being sharded, so the row takes the credit until the rebalance
+                    && accountRepository.creditIfExists(accountId, amount) == 0) {
+                throw new AccountNotFoundException("Account not found: " + accountId);
+            }
+        });
+    }
+
+    public void debit(Long accountId, BigDecimal amount) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Account account = accountRepository.findByIdForUpdate(accountId)
+                    .orElseThrow(() -> new AccountNotFoundException("Account not found with id: " + accountId));
+            debitLocked(account, lockSlots(accountId), amount);
+            transactionRepository.save(new Transaction(account, "DEBIT", amount));
+        });
+    }
+
+    // Locks the slots of a sharded account whose row the caller has already locked, in the caller's transaction
+    public List<AccountSlot> lockSlots(Long accountId) {
+        return accountSlotRepository.findAllByAccountIdForUpdate(accountId);
+    }
+
+    // Debits a sharded account whose row and slots the caller holds locked: the account row first, then the
+    // fullest slots, touching as few rows as possible
+    public static void debitLocked(Account account, List<AccountSlot> accountSlots, BigDecimal amount) {
+        if (total(account, accountSlots).compareTo(amount) < 0) {
+            throw new InsufficientFundsException("Insufficient funds in account id: " + account.getId());
+        }
+        BigDecimal remaining = amount;
+        BigDecimal fromAccount = account.getBalance().min(remaining).max(BigDecimal.ZERO);
+        account.setBalance(account.getBalance().subtract(fromAccount));
+        remaining = remaining.subtract(fromAccount);
+        List<AccountSlot> fullestFirst = new ArrayList<>(accountSlots);
+        fullestFirst.sort(Comparator.comparing(AccountSlot::getBalance).reversed());
+        for (AccountSlot accountSlot : fullestFirst) {
+            if (remaining.signum() == 0) {
+                break;
+            }
+            BigDecimal taken = accountSlot.getBalance().min(remaining);
+            accountSlot.setBalance(accountSlot.getBalance().subtract(taken));
+            remaining = remaining.subtract(taken);
+        }
+    }
+
+    public BigDecimal getBalance(Long accountId) {
+        return accountSlotRepository.findTotalBalance(accountId)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found: " + accountId));
+    }
+
+    // Evens out the slots of every sharded account and folds in anything credited to the account row,
+    // so debits keep finding funds in any slot. Takes the same locks in the same order as debit.
+    @Scheduled(fixedDelayString = "${banking.sharding.rebalance-interval-millis:5000}")
+    public void rebalance() {
+        for (Long accountId : slotCounts.keySet()) {
+            transactionTemplate.executeWithoutResult(status -> {
+                Account account = accountRepository.findByIdForUpdate(accountId).orElse(null);
+                // Waits for a running shard() to commit; the slot count is still 0 if that rolled back
+                if (account != null && account.getSlotCount() > 0) {
+                    spreadEvenly(account, lockSlots(accountId));
+                }
+            });
+        }
+    }
+
+    // Moves the whole balance into the slots in equal shares; slot 0 also takes the rounding remainder
+    private static void spreadEvenly(Account account, List<AccountSlot> accountSlots) {
+        BigDecimal total = total(account, accountSlots);
+        BigDecimal share = total.divide(BigDecimal.valueOf(accountSlots.size()), total.scale(), RoundingMode.DOWN);
+        for (AccountSlot accountSlot : accountSlots) {
+            accountSlot.setBalance(share);
+        }
+        accountSlots.get(0).setBalance(total.subtract(share.multiply(BigDecimal.valueOf(accountSlots.size() - 1))));
+        account.setBalance(BigDecimal.ZERO);
+    }
+
+    private static BigDecimal total(Account account, List<AccountSlot> accountSlots) {
+        BigDecimal total = account.getBalance();
+        for (AccountSlot accountSlot : accountSlots) {
+            total = total.add(accountSlot.getBalance());
+        }
+        return total;
+    }
+}
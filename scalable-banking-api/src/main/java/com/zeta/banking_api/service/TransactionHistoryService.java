@@ -0,0 +1,94 @@
+package com.zeta.banking_api.service;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.zeta.banking_api.dto.TransactionPage;
+import com.zeta.banking_api.dto.TransactionResponse;
+import com.zeta.banking_api.exception.AccountNotFoundException;
+import com.zeta.banking_api.repository.AccountRepository;
+import com.zeta.banking_api.repository.TransactionRepository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+@Service
+public class TransactionHistoryService {
+
+    public static final int MAX_PAGE_SIZE = 500;
+    // Rows per query while exporting; only one such chunk is in memory at a time
+    private static final int EXPORT_CHUNK_SIZE = 1000;
+    private static final char CURSOR_SEPARATOR = '_';
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final ObjectWriter lineWriter;
+
+    public TransactionHistoryService(
+            AccountRepository accountRepository,
+            TransactionRepository transactionRepository,
+            ObjectMapper objectMapper
+        ) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        // Jackson would otherwise close the response stream after the first line
+        this.lineWriter = objectMapper.writerFor(TransactionResponse.class).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    // One page of history, newest first; cursor is null for the first page
+    public TransactionPage page(Long accountId, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        checkAccountExists(accountId);
+        List<TransactionResponse> transactions = cursor == null
+                ? transactionRepository.findLatest(accountId, Limit.of(limit))
+                : nextChunk(accountId, cursor, limit);
+        String nextCursor = transactions.size() < limit ? null : cursorAfter(transactions.get(transactions.size() - 1));
+        return new TransactionPage(transactions, nextCursor);
+    }
+
+    // Writes the whole history as newline-delimited JSON, newest first. It walks the same keyset as the paged API,
+    // one short query per chunk, so neither the heap nor a DB connection is held for the length of the export.
+    public void export(Long accountId, OutputStream out) throws IOException {
+        List<TransactionResponse> chunk = transactionRepository.findLatest(accountId, Limit.of(EXPORT_CHUNK_SIZE));
+        while (!chunk.isEmpty()) {
+            for (TransactionResponse transaction : chunk) {
+                lineWriter.writeValue(out, transaction);
+                out.write('\n');
+            }
+            out.flush();
+            if (chunk.size() < EXPORT_CHUNK_SIZE) {
+                return;
+            }
+            chunk = nextChunk(accountId, cursorAfter(chunk.get(chunk.size() - 1)), EXPORT_CHUNK_SIZE);
+        }
+    }
+
+    public void checkAccountExists(Long accountId) {
+        if (!accountRepository.existsById(accountId)) {
+            throw new AccountNotFoundException("Account not found: " + accountId);
+        }
+    }
+
+    private List<TransactionResponse> nextChunk(Long accountId, String cursor, int limit) {
+        int separator = cursor.lastIndexOf(CURSOR_SEPARATOR);
+        try {
+            LocalDateTime beforeTimestamp = LocalDateTime.parse(cursor.substring(0, separator));
+            Long beforeId = Long.valueOf(cursor.substring(separator + 1));
+            return transactionRepository.findBefore(accountId, beforeTimestamp, beforeId, Limit.of(limit));
+        } catch (DateTimeParseException | IndexOutOfBoundsException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    private static String cursorAfter(TransactionResponse last) {
+        return last.getTimestamp().toString() + CURSOR_SEPARATOR + last.getId();
+    }
+}
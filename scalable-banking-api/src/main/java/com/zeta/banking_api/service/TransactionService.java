@@ -1,63 +1,243 @@
 package com.zeta.banking_api.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.zeta.banking_api.cache.BalanceCache;
 import com.zeta.banking_api.entity.Account;
 import com.zeta.banking_api.entity.Transaction;
 import com.zeta.banking_api.exception.AccountNotFoundException;
+import com.zeta.banking_api.exception.ConcurrentUpdateException;
 import com.zeta.banking_api.exception.InsufficientFundsException;
+import com.zeta.banking_api.ledger.LedgerService;
 import com.zeta.banking_api.repository.AccountRepository;
 import com.zeta.banking_api.repository.TransactionRepository;
 
 import java.math.BigDecimal;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 
 @Service
 public class TransactionService {
 
+    private static final int CONFLICT_TRACKER_SLOTS = 1 << 16;
+
     private final AccountRepository accountRepository;
     private final TransactionRepository transactionRepository;
+    // Transactions are opened here rather than with @Transactional, so an optimistic retry gets a fresh one
+    private final TransactionTemplate transactionTemplate;
+    // Apply debits and credits as single conditional UPDATEs instead of locking the row across a read and a write
+    private final boolean conditionalUpdate;
+    private final ConcurrencyStrategy concurrencyStrategy;
+    private final int maxOptimisticAttempts;
+    private final long maxBackoffMicros;
+    private final ConflictRateTracker conflictRates;
+    private final ShardedAccountService shardedAccounts;
+    // Credits of one account arriving together are committed as a group instead of one by one; null when off
+    private final CreditCoalescer creditCoalescer;
+    private final BalanceCache balanceCache;
+    // Debits and credits are journaled and balances served from memory instead of the accounts table; null when off
+    private final LedgerService ledger;
 
     @Autowired
     public TransactionService(
             AccountRepository accountRepository,
-            TransactionRepository transactionRepository
+            TransactionRepository transactionRepository,
+            PlatformTransactionManager transactionManager,
+            ShardedAccountService shardedAccounts,
+            CreditCoalescer creditCoalescer,
+            BalanceCache balanceCache,
+            LedgerService ledger,
+            @Value("${banking.transactions.coalesce-credits:false}") boolean coalesceCredits,
+            @Value("${banking.transactions.conditional-update:false}") boolean conditionalUpdate,
+            @Value("${banking.transactions.concurrency-strategy:PESSIMISTIC}") ConcurrencyStrategy concurrencyStrategy,
+            @Value("${banking.transactions.optimistic.max-attempts:5}") int maxOptimisticAttempts,
+            @Value("${banking.transactions.optimistic.max-backoff-millis:20}") long maxBackoffMillis,
+            @Value("${banking.transactions.adaptive.pessimistic-above-conflict-rate:0.1}") double pessimisticAboveConflictRate
         ) {
         this.accountRepository = accountRepository;
         this.transactionRepository = transactionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.conditionalUpdate = conditionalUpdate;
+        this.concurrencyStrategy = concurrencyStrategy;
+        this.maxOptimisticAttempts = maxOptimisticAttempts;
+        this.maxBackoffMicros = TimeUnit.MILLISECONDS.toMicros(maxBackoffMillis);
+        this.conflictRates = new ConflictRateTracker(CONFLICT_TRACKER_SLOTS, pessimisticAboveConflictRate);
+        this.shardedAccounts = shardedAccounts;
+        this.creditCoalescer = coalesceCredits ? creditCoalescer : null;
+        this.balanceCache = balanceCache;
+        this.ledger = ledger.isEnabled() ? ledger : null;
     }
 
-    @Transactional
     public void debit(Long accountId, BigDecimal amount) {
-        // Retrieve account with a pessimistic lock to ensure concurrency safety
-        Account account = accountRepository.findByIdForUpdate(accountId)
-                .orElseThrow(() -> new AccountNotFoundException("Account not found with id: " + accountId));
+        if (ledger != null) {
+            ledger.debit(accountId, amount);
+            return;
+        }
+        if (shardedAccounts.isSharded(accountId)) {
+            shardedAccounts.debit(accountId, amount);
+            return;
+        }
+        boolean applied = conditionalUpdate
+                ? transactionTemplate.execute(status -> debitWithConditionalUpdate(accountId, amount))
+                : updateAccount(accountId, "Account not found with id: " + accountId, account -> {
+                    // Check for sufficient funds
+                    if (account.getBalance().compareTo(amount) < 0) {
+                        if (account.getSlotCount() > 0) {
+                            // Sharded since the check above: the rest of the balance is in the slots
+                            return false;
+                        }
+                        throw new InsufficientFundsException("Insufficient funds in account id: " + accountId);
+                    }
+                    account.setBalance(account.getBalance().subtract(amount));
+                    transactionRepository.save(new Transaction(account, "DEBIT", amount));
+                    return true;
+                });
+        if (!applied) {
+            shardedAccounts.debit(accountId, amount);
+        }
+    }
 
-        // Check for sufficient funds
-        if (account.getBalance().compareTo(amount) < 0) {
-            throw new InsufficientFundsException("Insufficient funds in account id: " + accountId);
+    public void credit(Long accountId, BigDecimal amount) {
+        if (ledger != null) {
+            ledger.credit(accountId, amount);
+            return;
+        }
+        if (shardedAccounts.isSharded(accountId)) {
+            shardedAccounts.credit(accountId, amount);
+            return;
+        }
+        if (creditCoalescer != null) {
+            try {
+                creditCoalescer.credit(accountId, amount).join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+            return;
+        }
+        if (conditionalUpdate) {
+            transactionTemplate.executeWithoutResult(status -> creditWithConditionalUpdate(accountId, amount));
+            return;
         }
 
-        // Update balance and persist
-        account.setBalance(account.getBalance().subtract(amount));
-        accountRepository.save(account);
+        // A credit can always stay on the row, even of an account sharded meanwhile; the rebalancer moves it into the slots
+        updateAccount(accountId, "Account not found: " + accountId, account -> {
+            account.setBalance(account.getBalance().add(amount));
+            transactionRepository.save(new Transaction(account, "CREDIT", amount));
+            return true;
+        });
     }
 
-    @Transactional
-    public void credit(Long accountId, BigDecimal amount) {
-        Account account = accountRepository.findByIdForUpdate(accountId)
-                .orElseThrow(() -> new AccountNotFoundException("Account not found: " + accountId));
+    // Applies the change to the account in one transaction, guarded by the configured concurrency strategy.
+    // Returns false, writing nothing, if the change declined the account.
+    private boolean updateAccount(Long accountId, String notFoundMessage, Predicate<Account> change) {
+        boolean optimistic = switch (concurrencyStrategy) {
+            case PESSIMISTIC -> false;
+            case OPTIMISTIC -> true;
+            case ADAPTIVE -> !conflictRates.preferPessimistic(accountId);
+        };
+        if (!optimistic) {
+            boolean applied = transactionTemplate.execute(status -> {
+                // Retrieve account with a pessimistic lock to ensure concurrency safety
+                Account account = accountRepository.findByIdForUpdate(accountId)
+                        .orElseThrow(() -> new AccountNotFoundException(notFoundMessage));
+                if (!change.test(account)) {
+                    return false;
+                }
+                accountRepository.save(account);
+                balanceCache.updateAfterCommit(account);
+                return true;
+            });
+            conflictRates.recordSuccess(accountId);
+            return applied;
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                boolean applied = transactionTemplate.execute(status -> {
+                    Account account = accountRepository.findById(accountId)
+                            .orElseThrow(() -> new AccountNotFoundException(notFoundMessage));
+                    if (!change.test(account)) {
+                        return false;
+                    }
+                    // Flush here so a version conflict surfaces from this call rather than from the commit
+                    accountRepository.saveAndFlush(account);
+                    balanceCache.updateAfterCommit(account);
+                    return true;
+                });
+                conflictRates.recordSuccess(accountId);
+                return applied;
+            } catch (OptimisticLockingFailureException e) {
+                conflictRates.recordConflict(accountId);
+                if (attempt == maxOptimisticAttempts) {
+                    throw new ConcurrentUpdateException("Account " + accountId + " is being updated concurrently, try again");
+                }
+                backOff(accountId, attempt);
+            }
+        }
+    }
+
+    // Full jitter: sleep a random time up to an exponentially growing cap, so conflicting writers spread out
+    private void backOff(Long accountId, int attempt) {
+        long capMicros = Math.min(maxBackoffMicros, 100L << Math.min(attempt, 20));
+        try {
+            TimeUnit.MICROSECONDS.sleep(ThreadLocalRandom.current().nextLong(capMicros + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConcurrentUpdateException("Interrupted while retrying an update of account " + accountId);
+        }
+    }
 
-        account.setBalance(account.getBalance().add(amount));
-        accountRepository.save(account);
-        transactionRepository.save(new Transaction(account, "CREDIT", amount));
+    // Returns false if the account was sharded since it was routed here and its row alone is short
+    private boolean debitWithConditionalUpdate(Long accountId, BigDecimal amount) {
+        if (accountRepository.debitIfSufficientFunds(accountId, amount) == 0) {
+            // Nothing was updated: tell a missing account from a short balance only on this failure path
+            Account account = accountRepository.findById(accountId)
+                    .orElseThrow(() -> new AccountNotFoundException("Account not found with id: " + accountId));
+            if (account.getSlotCount() > 0) {
+                return false;
+            }
+            throw new InsufficientFundsException("Insufficient funds in account id: " + accountId);
+        }
+        balanceCache.evictAfterCommit(accountId);
+        transactionRepository.save(new Transaction(accountRepository.getReferenceById(accountId), "DEBIT", amount));
+        return true;
+    }
+
+    private void creditWithConditionalUpdate(Long accountId, BigDecimal amount) {
+        if (accountRepository.creditIfExists(accountId, amount) == 0) {
+            throw new AccountNotFoundException("Account not found: " + accountId);
+        }
+        balanceCache.evictAfterCommit(accountId);
+        // The account is known to exist, so a reference is enough for the foreign key; it is not loaded
+        transactionRepository.save(new Transaction(accountRepository.getReferenceById(accountId), "CREDIT", amount));
     }
 
     public BigDecimal getBalance(Long accountId) {
-        return accountRepository.findById(accountId)
-                .orElseThrow(() -> new AccountNotFoundException("Account not found: " + accountId))
-                .getBalance();
+        if (ledger != null) {
+            return ledger.getBalance(accountId);
+        }
+        if (shardedAccounts.isSharded(accountId)) {
+            return shardedAccounts.getBalance(accountId);
+        }
+        BigDecimal cached = balanceCache.get(accountId);
+        if (cached != null) {
+            return cached;
+        }
+        long readStartedAt = balanceCache.readStarted();
+        Account account = accountRepository.findById(accountId)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found: " + accountId));
+        if (account.getSlotCount() > 0) {
+            // Sharded since the check above; the row holds only part of the balance
+            return shardedAccounts.getBalance(accountId);
+        }
+        balanceCache.fill(account, readStartedAt);
+        return account.getBalance();
     }
 }
-
@@ -0,0 +1,147 @@
+package com.zeta.banking_api.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.zeta.banking_api.entity.Account;
+import com.zeta.banking_api.repository.AccountRepository;
+import com.zeta.banking_api.service.TransactionService;
+
+// Tests the balance cache's staleness rules: a reader's fill loses to any write made since its read began, even
+// one racing with the fill itself, an older version never replaces a newer one, and conditional UPDATEs, which
+// do not load the entity, evict the entry. Also checks that the stats endpoint reports the hits and misses of getBalance. It has its own database:
+// a context otherwise identical to ConditionalUpdateTest's would be reused by it after other contexts had
+// recreated the shared schema underneath.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "banking.transactions.conditional-update=true",
+        "banking.rate-limit.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:balance-cache"
+})
+class BalanceCacheTest {
+
+    @Autowired
+    private BalanceCache balanceCache;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void fillAfterAWriteIsRejected() {
+        Long accountId = accountRepository.save(new Account(new BigDecimal("10.00"))).getId();
+
+        long readStartedAt = balanceCache.readStarted();
+        Account read = accountRepository.findById(accountId).orElseThrow();
+        // A write lands between the reader's DB read and its fill
+        balanceCache.evictAfterCommit(accountId);
+        balanceCache.fill(read, readStartedAt);
+        assertNull(balanceCache.get(accountId), "a fill that started before a write must not be cached");
+
+        balanceCache.fill(read, balanceCache.readStarted());
+        assertEquals(0, new BigDecimal("10.00").compareTo(balanceCache.get(accountId)), "a fill after the write is cached");
+    }
+
+    @Test
+    void writeDuringAFillIsNotOverwritten() throws Exception {
+        BalanceCache cache = new BalanceCache(true, 100, 60);
+        CountDownLatch fillStarted = new CountDownLatch(1);
+        CountDownLatch written = new CountDownLatch(1);
+        // The reader's stale row; it stops as the fill begins, so the write lands between the fill's start and
+        // its update of the entry
+        Account staleRead = new Account(new BigDecimal("10.00")) {
+            @Override
+            public Long getId() {
+                fillStarted.countDown();
+                try {
+                    written.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return 42L;
+            }
+
+            @Override
+            public Long getVersion() {
+                return 0L;
+            }
+        };
+
+        long readStartedAt = cache.readStarted();
+        Thread reader = Thread.ofPlatform().start(() -> cache.fill(staleRead, readStartedAt));
+        fillStarted.await();
+        cache.evictAfterCommit(42L);
+        written.countDown();
+        reader.join();
+
+        assertNull(cache.get(42L), "a fill racing with a write must not cache the balance from before the write");
+    }
+
+    @Test
+    void lowerVersionDoesNotReplaceHigher() {
+        Long accountId = accountRepository.save(new Account(new BigDecimal("10.00"))).getId();
+        Account stale = accountRepository.findById(accountId).orElseThrow();
+        transactionService.credit(accountId, new BigDecimal("5.00"));
+        Account current = accountRepository.findById(accountId).orElseThrow();
+        assertTrue(current.getVersion() > stale.getVersion());
+
+        balanceCache.updateAfterCommit(current);
+        balanceCache.updateAfterCommit(stale);
+        assertEquals(0, new BigDecimal("15.00").compareTo(balanceCache.get(accountId)), "a writer with an older version must not win");
+
+        balanceCache.fill(stale, balanceCache.readStarted());
+        assertEquals(0, new BigDecimal("15.00").compareTo(balanceCache.get(accountId)), "a reader with an older version must not win");
+    }
+
+    @Test
+    void conditionalUpdatesEvictTheEntry() {
+        Long accountId = accountRepository.save(new Account(new BigDecimal("10.00"))).getId();
+        transactionService.getBalance(accountId);
+        assertEquals(0, new BigDecimal("10.00").compareTo(balanceCache.get(accountId)));
+
+        transactionService.credit(accountId, new BigDecimal("5.00"));
+        assertNull(balanceCache.get(accountId), "a conditional credit must evict the cached balance");
+        assertEquals(0, new BigDecimal("15.00").compareTo(transactionService.getBalance(accountId)));
+
+        transactionService.debit(accountId, new BigDecimal("3.00"));
+        assertNull(balanceCache.get(accountId), "a conditional debit must evict the cached balance");
+        assertEquals(0, new BigDecimal("12.00").compareTo(transactionService.getBalance(accountId)));
+    }
+
+    @Test
+    void statsEndpointCountsHitsAndMisses() {
+        Long accountId = accountRepository.save(new Account(new BigDecimal("10.00"))).getId();
+        BalanceCache.Stats before = stats();
+
+        transactionService.getBalance(accountId);
+        transactionService.getBalance(accountId);
+        transactionService.getBalance(accountId);
+
+        BalanceCache.Stats after = stats();
+        assertTrue(after.enabled());
+        assertEquals(1, after.misses() - before.misses(), "the first read misses");
+        assertEquals(2, after.hits() - before.hits(), "the reads after it hit");
+        assertTrue(after.size() >= 1);
+    }
+
+    private BalanceCache.Stats stats() {
+        ResponseEntity<BalanceCache.Stats> response = restTemplate.getForEntity("/api/metrics/balance-cache", BalanceCache.Stats.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        return response.getBody();
+    }
+}
@@ -0,0 +1,30 @@
+package com.zeta.banking_api.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+// Tests bulkhead sizing: permits default to the pool minus the connections reserved for background work, and an
+// explicit permit count or reservation that would leave background work without a connection is rejected.
+class BulkheadConfigTest {
+
+    @Test
+    void defaultPermitsLeaveTheReservedConnections() {
+        assertEquals(8, BulkheadConfig.permits(10, 2, 0));
+        assertEquals(10, BulkheadConfig.permits(10, 0, 0));
+    }
+
+    @Test
+    void explicitPermitsMustFitBesideTheReservation() {
+        assertEquals(5, BulkheadConfig.permits(10, 2, 5));
+        assertEquals(8, BulkheadConfig.permits(10, 2, 8));
+        assertThrows(IllegalArgumentException.class, () -> BulkheadConfig.permits(10, 2, 9));
+    }
+
+    @Test
+    void reservationMustLeaveAConnectionForRequests() {
+        assertThrows(IllegalArgumentException.class, () -> BulkheadConfig.permits(10, 10, 0));
+        assertThrows(IllegalArgumentException.class, () -> BulkheadConfig.permits(10, -1, 0));
+    }
+}
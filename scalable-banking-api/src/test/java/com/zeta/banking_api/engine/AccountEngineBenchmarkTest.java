@@ -0,0 +1,107 @@
+package com.zeta.banking_api.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.zeta.banking_api.BankingApiApplication;
+import com.zeta.banking_api.entity.Account;
+import com.zeta.banking_api.repository.AccountRepository;
+import com.zeta.banking_api.service.TransactionService;
+import com.zeta.rate_limiter.LatencyHistogram;
+
+// Benchmark: credits per second and p99 latency over a set of accounts, through the database-backed service
+// and through the engine with a growing number of shards. Starts the application once per configuration,
+// prints a table and checks that the balances hold exactly the credits that completed.
+@Tag("benchmark")
+class AccountEngineBenchmarkTest {
+
+    private static final int THREADS = 64;
+    private static final int ACCOUNTS = 1_000;
+    private static final long PHASE_MILLIS = 3_000;
+
+    @Test
+    void compareDatabaseAndEngine() throws Exception {
+        System.out.printf("%-12s %12s %10s%n", "path", "credits/s", "p99 ms");
+        run(0);
+        for (int shards : new int[]{1, 2, 4, 8}) {
+            run(shards);
+        }
+    }
+
+    // shards == 0 runs without the engine
+    private void run(int shards) throws Exception {
+        String mode = shards == 0 ? "database" : "engine-" + shards;
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BankingApiApplication.class)
+                .web(WebApplicationType.NONE)
+                // Passed as arguments so they take precedence over application.properties
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:" + mode,
+                        "--banking.engine.enabled=" + (shards > 0),
+                        "--banking.engine.shards=" + shards)) {
+            TransactionService service = context.getBean(TransactionService.class);
+            AccountEngine engine = context.getBean(AccountEngine.class);
+            AccountRepository accountRepository = context.getBean(AccountRepository.class);
+            List<Account> created = new ArrayList<>();
+            for (int i = 0; i < ACCOUNTS; i++) {
+                created.add(new Account(BigDecimal.ZERO));
+            }
+            List<Long> accountIds = new ArrayList<>();
+            for (Account account : accountRepository.saveAll(created)) {
+                accountIds.add(account.getId());
+            }
+
+            LatencyHistogram latency = new LatencyHistogram();
+            AtomicLong credited = new AtomicLong();
+            long start = System.nanoTime();
+            long deadline = start + PHASE_MILLIS * 1_000_000;
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < THREADS; t++) {
+                    futures.add(executor.submit(() -> {
+                        while (System.nanoTime() < deadline) {
+                            Long accountId = accountIds.get(ThreadLocalRandom.current().nextInt(ACCOUNTS));
+                            long sent = System.nanoTime();
+                            if (shards > 0) {
+                                engine.credit(accountId, BigDecimal.ONE).join();
+                            } else {
+                                service.credit(accountId, BigDecimal.ONE);
+                            }
+                            latency.record(System.nanoTime() - sent);
+                            credited.incrementAndGet();
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdown();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            BigDecimal total = BigDecimal.ZERO;
+            for (Long accountId : accountIds) {
+                total = total.add(shards > 0 ? engine.getBalance(accountId).join() : service.getBalance(accountId));
+            }
+            assertEquals(0, BigDecimal.valueOf(credited.get()).compareTo(total), mode + " lost or duplicated a credit");
+            System.out.printf("%-12s %12.0f %10.1f%n", mode, credited.get() / seconds,
+                    LatencyHistogram.valueAtQuantile(latency.countsSnapshot(), 0.99) / 1e6);
+        }
+    }
+}
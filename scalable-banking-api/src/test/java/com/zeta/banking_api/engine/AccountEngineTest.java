@@ -0,0 +1,196 @@
+package com.zeta.banking_api.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.zeta.banking_api.dto.TransactionResponse;
+import com.zeta.banking_api.entity.Account;
+import com.zeta.banking_api.exception.AccountNotFoundException;
+import com.zeta.banking_api.exception.InsufficientFundsException;
+import com.zeta.banking_api.repository.AccountRepository;
+import com.zeta.banking_api.repository.TransactionRepository;
+
+// Tests engine mode: commands for an account apply in the order they were submitted, short balances and
+// unknown accounts fail only their own command, a write-behind batch that fails is retried until it lands with
+// no history row lost or written twice, and shutdown applies and writes everything queued before it.
+// A short H2 lock timeout lets a test make write-behind fail by holding an account's row lock.
+@SpringBootTest(properties = {
+        "banking.engine.enabled=true",
+        "banking.engine.shards=2",
+        "banking.engine.max-batch-size=100",
+        "spring.datasource.url=jdbc:h2:mem:engine-${random.uuid};LOCK_TIMEOUT=200"
+})
+class AccountEngineTest {
+
+    private static final long WAIT_SECONDS = 30;
+
+    @Autowired
+    private AccountEngine engine;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void commandsApplyInSubmissionOrder() throws Exception {
+        int pairs = 500;
+        Long accountId = accountRepository.save(new Account(BigDecimal.ZERO)).getId();
+
+        // Each debit is only covered if the credit submitted just before it was applied first
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        for (int i = 0; i < pairs; i++) {
+            results.add(engine.credit(accountId, BigDecimal.ONE));
+            results.add(engine.debit(accountId, BigDecimal.ONE));
+        }
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(WAIT_SECONDS, TimeUnit.SECONDS);
+        assertEquals(0, BigDecimal.ZERO.compareTo(engine.getBalance(accountId).get()));
+
+        List<TransactionResponse> history = awaitHistory(accountId, 2 * pairs);
+        Collections.reverse(history);
+        for (int i = 0; i < history.size(); i++) {
+            assertEquals(i % 2 == 0 ? "CREDIT" : "DEBIT", history.get(i).getType(), "history entry " + i);
+        }
+    }
+
+    @Test
+    void shortBalanceFailsOnlyThatDebit() throws Exception {
+        Long accountId = accountRepository.save(new Account(new BigDecimal("10.00"))).getId();
+
+        CompletableFuture<Void> tooLarge = engine.debit(accountId, new BigDecimal("10.01"));
+        CompletableFuture<Void> exact = engine.debit(accountId, new BigDecimal("10.00"));
+        CompletableFuture<Void> empty = engine.debit(accountId, new BigDecimal("0.01"));
+
+        assertInstanceOf(InsufficientFundsException.class, failureOf(tooLarge));
+        exact.get(WAIT_SECONDS, TimeUnit.SECONDS);
+        assertInstanceOf(InsufficientFundsException.class, failureOf(empty));
+        assertEquals(0, BigDecimal.ZERO.compareTo(engine.getBalance(accountId).get()));
+        assertEquals(List.of("DEBIT"), types(awaitHistory(accountId, 1)));
+    }
+
+    @Test
+    void unknownAccountIsNotRemembered() throws Exception {
+        long missing = accountRepository.save(new Account(BigDecimal.ZERO)).getId() + 1_000_000;
+
+        assertInstanceOf(AccountNotFoundException.class, failureOf(engine.credit(missing, BigDecimal.ONE)));
+        assertInstanceOf(AccountNotFoundException.class, failureOf(engine.getBalance(missing)));
+        assertInstanceOf(IllegalArgumentException.class, failureOf(engine.credit(missing, new BigDecimal("0.001"))));
+
+        // A later lookup goes back to the database, where the account may exist by now
+        jdbcTemplate.update("INSERT INTO accounts (id, balance, version, slot_count) VALUES (?, 3.00, 0, 0)", missing);
+        engine.credit(missing, BigDecimal.ONE).get(WAIT_SECONDS, TimeUnit.SECONDS);
+        assertEquals(0, new BigDecimal("4.00").compareTo(engine.getBalance(missing).get()));
+    }
+
+    @Test
+    void failedWriteIsRetriedWithoutLosingOrRepeatingHistory() throws Exception {
+        int credits = 300;
+        Long accountId = accountRepository.save(new Account(BigDecimal.ZERO)).getId();
+        engine.credit(accountId, BigDecimal.ONE).get(WAIT_SECONDS, TimeUnit.SECONDS);
+        awaitHistory(accountId, 1);
+
+        // Hold the account's row lock for several lock timeouts, so every write-behind batch meanwhile fails
+        CountDownLatch locked = new CountDownLatch(1);
+        Thread holder = Thread.ofPlatform().start(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            accountRepository.findByIdForUpdate(accountId).orElseThrow();
+            locked.countDown();
+            try {
+                Thread.sleep(1_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        locked.await();
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        for (int i = 0; i < credits; i++) {
+            results.add(engine.credit(accountId, BigDecimal.ONE));
+        }
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(WAIT_SECONDS, TimeUnit.SECONDS);
+        holder.join();
+
+        assertEquals(credits + 1, awaitHistory(accountId, credits + 1).size());
+        awaitCondition(() -> BigDecimal.valueOf(credits + 1).compareTo(balanceInDatabase(accountId)) == 0);
+        // No second copy of a retried batch turns up later
+        Thread.sleep(300);
+        assertEquals(credits + 1, transactionRepository.findLatest(accountId, Limit.unlimited()).size());
+    }
+
+    @Test
+    @DirtiesContext
+    void shutdownDrainsQueuedCommands() throws Exception {
+        int credits = 1_000;
+        Long accountId = accountRepository.save(new Account(BigDecimal.ZERO)).getId();
+
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        for (int i = 0; i < credits; i++) {
+            results.add(engine.credit(accountId, BigDecimal.ONE));
+        }
+        engine.shutdown();
+
+        for (CompletableFuture<Void> result : results) {
+            assertTrue(result.isDone() && !result.isCompletedExceptionally(), "a credit queued before shutdown must be applied");
+        }
+        // Written by the time shutdown returns, not eventually
+        assertEquals(credits, transactionRepository.findLatest(accountId, Limit.unlimited()).size());
+        assertEquals(0, BigDecimal.valueOf(credits).compareTo(balanceInDatabase(accountId)));
+    }
+
+    private List<TransactionResponse> awaitHistory(Long accountId, int expected) throws InterruptedException {
+        awaitCondition(() -> transactionRepository.findLatest(accountId, Limit.unlimited()).size() >= expected);
+        List<TransactionResponse> history = transactionRepository.findLatest(accountId, Limit.unlimited());
+        assertEquals(expected, history.size());
+        return new ArrayList<>(history);
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(WAIT_SECONDS);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "write-behind did not catch up");
+            Thread.sleep(20);
+        }
+    }
+
+    private BigDecimal balanceInDatabase(Long accountId) {
+        return accountRepository.findById(accountId).orElseThrow().getBalance();
+    }
+
+    private static Throwable failureOf(CompletableFuture<?> result) {
+        return assertThrows(ExecutionException.class, () -> result.get(WAIT_SECONDS, TimeUnit.SECONDS)).getCause();
+    }
+
+    private static List<String> types(List<TransactionResponse> history) {
+        List<String> types = new ArrayList<>();
+        for (TransactionResponse entry : history) {
+            types.add(entry.getType());
+        }
+        return types;
+    }
+}
@@ -0,0 +1,107 @@
+package com.zeta.banking_api.filter;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.zeta.banking_api.BankingApiApplication;
+import com.zeta.banking_api.entity.Account;
+import com.zeta.banking_api.repository.AccountRepository;
+import com.zeta.rate_limiter.LatencyHistogram;
+
+// Benchmark: debit throughput and p99 latency on platform threads and on virtual threads, each with and without
+// the bulkhead, while many clients contend for a few hot accounts. Starts the application once per combination
+// and prints a table.
+@Tag("benchmark")
+class BulkheadBenchmarkTest {
+
+    private static final int CLIENTS = 400;
+    private static final int HOT_ACCOUNTS = 4;
+    private static final long PHASE_MILLIS = 3_000;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    @Test
+    void compareThreadModels() throws Exception {
+        System.out.printf("%-9s %-9s %12s %12s %10s%n", "threads", "bulkhead", "requests/s", "p99 ms", "errors");
+        for (boolean virtualThreads : new boolean[]{false, true}) {
+            for (boolean bulkhead : new boolean[]{false, true}) {
+                run(virtualThreads, bulkhead);
+            }
+        }
+    }
+
+    private void run(boolean virtualThreads, boolean bulkhead) throws Exception {
+        String mode = (virtualThreads ? "virtual" : "platform") + "-" + (bulkhead ? "bulkhead" : "plain");
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BankingApiApplication.class)
+                // Passed as arguments so they take precedence over application.properties
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:" + mode,
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--banking.bulkhead.enabled=" + bulkhead,
+                        "--banking.bulkhead.max-wait-millis=30000",
+                        "--banking.rate-limit.enabled=false")) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            AccountRepository accountRepository = context.getBean(AccountRepository.class);
+            List<Long> accountIds = new ArrayList<>();
+            for (int a = 0; a < HOT_ACCOUNTS; a++) {
+                accountIds.add(accountRepository.save(new Account(new BigDecimal("1000000000"))).getId());
+            }
+
+            LatencyHistogram latency = new LatencyHistogram();
+            AtomicLong completed = new AtomicLong();
+            AtomicLong errors = new AtomicLong();
+            long start = System.nanoTime();
+            long deadline = start + PHASE_MILLIS * 1_000_000;
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int c = 0; c < CLIENTS; c++) {
+                    HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/accounts/"
+                                    + accountIds.get(c % HOT_ACCOUNTS) + "/debit"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString("{\"amount\": 1}"))
+                            .build();
+                    futures.add(clients.submit(() -> {
+                        while (System.nanoTime() < deadline) {
+                            long sent = System.nanoTime();
+                            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                            latency.record(System.nanoTime() - sent);
+                            completed.incrementAndGet();
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            assertTrue(completed.get() > errors.get(), mode + " completed no debits");
+            System.out.printf("%-9s %-9s %12.0f %12.1f %10d%n", virtualThreads ? "virtual" : "platform", bulkhead ? "on" : "off",
+                    completed.get() / seconds, LatencyHistogram.valueAtQuantile(latency.countsSnapshot(), 0.99) / 1e6, errors.get());
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.zeta.banking_api.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.FilterChain;
+
+// Tests the bulkhead's permit accounting: an async request holds its permit until its response completes, not
+// just until the handler returns, and requests the bypass predicate lets through never take a permit.
+class BulkheadFilterTest {
+
+    private static final long MAX_WAIT_MILLIS = 50;
+
+    @Test
+    void asyncRequestHoldsItsPermitUntilComplete() throws Exception {
+        BulkheadFilter filter = new BulkheadFilter(1, MAX_WAIT_MILLIS, request -> false);
+        AsyncContext[] started = new AsyncContext[1];
+        MockHttpServletRequest asyncRequest = request("/api/accounts/1/debit");
+        asyncRequest.setAsyncSupported(true);
+        FilterChain startsAsync = (request, response) -> started[0] = request.startAsync();
+
+        filter.doFilter(asyncRequest, new MockHttpServletResponse(), startsAsync);
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), status(filter, "/api/accounts/2/debit"),
+                "the handler has returned but the response is still being produced");
+
+        started[0].complete();
+        assertEquals(HttpStatus.OK.value(), status(filter, "/api/accounts/2/debit"));
+        assertEquals(HttpStatus.OK.value(), status(filter, "/api/accounts/2/debit"), "the permit is released only once");
+    }
+
+    @Test
+    void bypassedRequestsTakeNoPermit() throws Exception {
+        BulkheadFilter filter = new BulkheadFilter(1, MAX_WAIT_MILLIS, request -> request.getRequestURI().endsWith("/balance"));
+        MockHttpServletRequest asyncRequest = request("/api/accounts/1/debit");
+        asyncRequest.setAsyncSupported(true);
+        filter.doFilter(asyncRequest, new MockHttpServletResponse(), (request, response) -> request.startAsync());
+
+        assertEquals(HttpStatus.OK.value(), status(filter, "/api/accounts/1/balance"));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), status(filter, "/api/accounts/1/credit"));
+    }
+
+    private static int status(BulkheadFilter filter, String path) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(path), response, new MockFilterChain());
+        return response.getStatus();
+    }
+
+    private static MockHttpServletRequest request(String path) {
+        return new MockHttpServletRequest("POST", path);
+    }
+}
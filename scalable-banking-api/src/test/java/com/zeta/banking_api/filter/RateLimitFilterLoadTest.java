@@ -0,0 +1,104 @@
+package com.zeta.banking_api.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import com.zeta.banking_api.entity.Account;
+import com.zeta.banking_api.repository.AccountRepository;
+
+// Load test: 64 clients overload one account, and the filter must hold it to its configured rate. Every
+// rejection is a 429 with a usable Retry-After, the debits let through never exceed the account's burst plus
+// its refill over the run, and the balance moves by exactly the debits that were let through.
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "banking.rate-limit.client.capacity=1000",
+        "banking.rate-limit.client.refill-per-second=1000",
+        "banking.rate-limit.account.capacity=" + RateLimitFilterLoadTest.ACCOUNT_CAPACITY,
+        "banking.rate-limit.account.refill-per-second=" + RateLimitFilterLoadTest.ACCOUNT_REFILL_PER_SECOND
+})
+class RateLimitFilterLoadTest {
+
+    static final int ACCOUNT_CAPACITY = 10;
+    static final int ACCOUNT_REFILL_PER_SECOND = 200;
+    private static final int CLIENTS = 64;
+    private static final long PHASE_MILLIS = 3_000;
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000000000");
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @Test
+    void admittedRateStaysWithinTheAccountLimit() throws Exception {
+        Long accountId = accountRepository.save(new Account(INITIAL_BALANCE)).getId();
+        AtomicLong admitted = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        AtomicLong unexpected = new AtomicLong();
+
+        long start = System.nanoTime();
+        long deadline = start + PHASE_MILLIS * 1_000_000;
+        ExecutorService executor = Executors.newFixedThreadPool(CLIENTS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int c = 0; c < CLIENTS; c++) {
+                HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/accounts/" + accountId + "/debit"))
+                        .header("Content-Type", "application/json")
+                        .header(RateLimitFilter.CLIENT_ID_HEADER, "client-" + c)
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"amount\": 1}"))
+                        .build();
+                futures.add(executor.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                        if (response.statusCode() == 200) {
+                            admitted.incrementAndGet();
+                        } else if (response.statusCode() == 429) {
+                            long retryAfter = Long.parseLong(response.headers().firstValue("Retry-After").orElse("0"));
+                            assertTrue(retryAfter >= 1, "429 must carry a Retry-After of at least one second");
+                            rejected.incrementAndGet();
+                        } else {
+                            unexpected.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        long limit = ACCOUNT_CAPACITY + (long) Math.ceil(elapsedSeconds * ACCOUNT_REFILL_PER_SECOND);
+        assertEquals(0, unexpected.get(), "every request must be either debited or rejected with 429");
+        assertTrue(rejected.get() > 0, "the clients must exceed the account limit");
+        assertTrue(admitted.get() > 0, "the account must still be served under overload");
+        assertTrue(admitted.get() <= limit, admitted.get() + " debits admitted in " + elapsedSeconds + "s, limit was " + limit);
+        BigDecimal balance = accountRepository.findById(accountId).orElseThrow().getBalance();
+        assertEquals(0, INITIAL_BALANCE.subtract(BigDecimal.valueOf(admitted.get())).compareTo(balance),
+                "the balance must reflect exactly the admitted debits");
+    }
+}
@@ -0,0 +1,68 @@
+package com.zeta.banking_api.ledger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.zeta.banking_api.ledger.LedgerJournal.Entry;
+
+// Benchmark: how long startup takes to replay a journal tail of a given length into in-memory balances,
+// the way LedgerService recovers. Prints a table and checks that replay restores every balance.
+@Tag("benchmark")
+class LedgerReplayBenchmarkTest {
+
+    private static final int ACCOUNTS = 10_000;
+    private static final int REGION_SIZE = 16 << 20;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replayTime() throws Exception {
+        System.out.printf("%-10s %10s %12s %14s%n", "entries", "MB", "replay ms", "entries/s");
+        for (int entries : new int[]{100_000, 1_000_000, 5_000_000}) {
+            run(entries);
+        }
+    }
+
+    private void run(int entries) throws Exception {
+        Path path = directory.resolve("journal-" + entries);
+        Map<Long, BigDecimal> expected = new HashMap<>();
+        try (LedgerJournal journal = new LedgerJournal(path, REGION_SIZE)) {
+            journal.replay(0, entry -> { });
+            LocalDateTime now = LocalDateTime.now();
+            for (int i = 0; i < entries; i++) {
+                long accountId = i % ACCOUNTS;
+                BigDecimal amount = BigDecimal.valueOf(i % 1000 + 1, 2);
+                journal.append(new Entry(accountId, "CREDIT", amount, now));
+                expected.merge(accountId, amount, BigDecimal::add);
+            }
+        }
+
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        AtomicLong replayed = new AtomicLong();
+        long start = System.nanoTime();
+        try (LedgerJournal journal = new LedgerJournal(path, REGION_SIZE)) {
+            long end = journal.replay(0, entry -> {
+                balances.merge(entry.accountId(), entry.amount(), BigDecimal::add);
+                replayed.incrementAndGet();
+            });
+            assertEquals((long) entries * LedgerJournal.RECORD_SIZE, end);
+        }
+        double millis = (System.nanoTime() - start) / 1e6;
+
+        assertEquals(entries, replayed.get());
+        assertEquals(expected, balances);
+        System.out.printf("%-10d %10.1f %12.1f %14.0f%n", entries, (double) entries * LedgerJournal.RECORD_SIZE / (1 << 20),
+                millis, entries / (millis / 1000));
+    }
+}
@@ -0,0 +1,86 @@
+package com.zeta.banking_api.ledger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.zeta.banking_api.entity.Account;
+import com.zeta.banking_api.repository.AccountRepository;
+
+// Tests ledger mode: operations it switches off are 409 while other errors keep their own status, and once the
+// journal fails the ledger refuses every further write instead of serving balances the journal may not hold.
+// Each context gets its own database and journal file, so a context rebuilt after the failure test starts clean.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "banking.ledger.enabled=true",
+        "banking.ledger.journal-path=${java.io.tmpdir}/ledger-test-${random.uuid}.journal",
+        "banking.ledger.region-size-mb=1",
+        "banking.ledger.checkpoint-interval-millis=3600000",
+        "spring.datasource.url=jdbc:h2:mem:ledger-${random.uuid}",
+        "banking.rate-limit.enabled=false"
+})
+class LedgerServiceTest {
+
+    @Autowired
+    private LedgerService ledger;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void operationsOffInLedgerModeAre409() {
+        Long from = accountRepository.save(new Account(new BigDecimal("100.00"))).getId();
+        Long to = accountRepository.save(new Account(BigDecimal.ZERO)).getId();
+
+        assertEquals(HttpStatus.CONFLICT, post("/api/accounts/transfer",
+                "{\"fromAccountId\": " + from + ", \"toAccountId\": " + to + ", \"amount\": 1}"));
+        assertEquals(HttpStatus.CONFLICT, post("/api/accounts/batch",
+                "{\"postings\": [{\"accountId\": " + from + ", \"type\": \"DEBIT\", \"amount\": 1}]}"));
+        assertEquals(HttpStatus.CONFLICT, post("/api/accounts/" + from + "/shards?slots=2", ""));
+        // Checked before the mode, and still a bad request
+        assertEquals(HttpStatus.BAD_REQUEST, post("/api/accounts/transfer",
+                "{\"fromAccountId\": " + from + ", \"toAccountId\": " + from + ", \"amount\": 1}"));
+        assertEquals(HttpStatus.BAD_REQUEST, post("/api/accounts/" + from + "/shards?slots=1", ""));
+    }
+
+    @Test
+    @DirtiesContext
+    void journalFailureStopsWrites() throws Exception {
+        Long accountId = accountRepository.save(new Account(new BigDecimal("100.00"))).getId();
+        ledger.credit(accountId, new BigDecimal("5.00"));
+
+        // Closing the journal underneath the ledger makes its next append fail with an I/O error
+        ((LedgerJournal) ReflectionTestUtils.getField(ledger, "journal")).close();
+        assertThrows(UncheckedIOException.class, () -> ledger.credit(accountId, new BigDecimal("1.00")));
+
+        UncheckedIOException refused = assertThrows(UncheckedIOException.class, () -> ledger.debit(accountId, new BigDecimal("1.00")));
+        assertTrue(refused.getMessage().contains("refused"), refused.getMessage());
+        assertThrows(UncheckedIOException.class, () -> ledger.credit(accountId, new BigDecimal("1.00")));
+        assertEquals(0, new BigDecimal("105.00").compareTo(ledger.getBalance(accountId)), "no refused posting may change the balance");
+        // Nothing is checkpointed from memory that no longer matches the journal
+        ledger.checkpoint();
+        assertEquals(0, new BigDecimal("100.00").compareTo(accountRepository.findById(accountId).orElseThrow().getBalance()));
+    }
+
+    private HttpStatus post(String path, String json) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return HttpStatus.valueOf(restTemplate.postForEntity(path, new HttpEntity<>(json, headers), String.class).getStatusCode().value());
+    }
+}
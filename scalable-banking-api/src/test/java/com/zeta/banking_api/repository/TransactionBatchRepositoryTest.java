@@ -0,0 +1,62 @@
+package com.zeta.banking_api.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.zeta.banking_api.entity.Account;
+import com.zeta.banking_api.entity.Transaction;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+// Tests saveAllInBatches: every row is written, and only those rows leave the persistence context
+@SpringBootTest
+class TransactionBatchRepositoryTest {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void callerEntitiesStayManaged() {
+        Long accountId = accountRepository.save(new Account(BigDecimal.ZERO)).getId();
+        int rows = 125;
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Account account = accountRepository.findById(accountId).orElseThrow();
+            List<Transaction> history = new ArrayList<>();
+            for (int i = 0; i < rows; i++) {
+                history.add(new Transaction(account, "CREDIT", BigDecimal.ONE));
+            }
+            transactionRepository.saveAllInBatches(history);
+
+            assertTrue(entityManager.contains(account), "the caller's account must stay managed");
+            assertFalse(entityManager.contains(history.get(0)), "flushed history rows are detached");
+            // Still managed, so this change is written at commit without a save
+            account.setBalance(BigDecimal.valueOf(rows));
+        });
+
+        assertEquals(0, BigDecimal.valueOf(rows).compareTo(accountRepository.findById(accountId).orElseThrow().getBalance()));
+        assertEquals(rows, transactionRepository.findLatest(accountId, Limit.unlimited()).size());
+    }
+}
@@ -0,0 +1,129 @@
+package com.zeta.banking_api.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+// Benchmark: history-shaped inserts per second with IDENTITY keys against pooled sequence keys. Hibernate has
+// to run an IDENTITY insert as soon as the row is persisted to learn its key, so those rows go one statement
+// at a time whatever the batch size; sequence keys are known up front, so rows are sent in JDBC batches.
+// The sequence path is also run with a flush per row, to separate the cost of the key from that of batching.
+// Every path clears the persistence context as it goes, so none of them pays for dirty-checking earlier rows.
+@Tag("benchmark")
+@SpringBootTest
+class TransactionInsertBenchmarkTest {
+
+    private static final int ROWS = 20_000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size}")
+    private int batchSize;
+
+    @Test
+    void compareKeyStrategies() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        System.out.printf("%-24s %12s%n", "path", "inserts/s");
+        for (boolean warmUp : new boolean[]{true, false}) {
+            int rows = warmUp ? ROWS / 10 : ROWS;
+            run(transactionTemplate, "identity", IdentityRow::new, rows, batchSize, warmUp);
+            run(transactionTemplate, "sequence, flush per row", SequenceRow::new, rows, 1, warmUp);
+            run(transactionTemplate, "sequence, batched", SequenceRow::new, rows, batchSize, warmUp);
+        }
+        long total = ROWS + ROWS / 10;
+        assertEquals(total, count(transactionTemplate, IdentityRow.class));
+        assertEquals(2 * total, count(transactionTemplate, SequenceRow.class));
+    }
+
+    private void run(TransactionTemplate transactionTemplate, String path, Supplier<Object> row, int rows, int flushEvery, boolean warmUp) {
+        long start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < rows; i++) {
+                entityManager.persist(row.get());
+                if ((i + 1) % flushEvery == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+            entityManager.flush();
+        });
+        double insertsPerSecond = rows / ((System.nanoTime() - start) / 1e9);
+        if (!warmUp) {
+            System.out.printf("%-24s %12.0f%n", path, insertsPerSecond);
+        }
+    }
+
+    private long count(TransactionTemplate transactionTemplate, Class<?> entity) {
+        return transactionTemplate.execute(status -> entityManager
+                .createQuery("SELECT COUNT(r) FROM " + entity.getSimpleName() + " r", Long.class)
+                .getSingleResult());
+    }
+
+    // Same columns as Transaction; only the key generation differs
+    @Entity(name = "IdentityRow")
+    @Table(name = "benchmark_identity_rows")
+    static class IdentityRow {
+
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long id;
+
+        @Column(nullable = false)
+        private long accountId = 1;
+
+        @Column(nullable = false)
+        private String type = "CREDIT";
+
+        @Column(nullable = false)
+        private BigDecimal amount = BigDecimal.ONE;
+
+        @Column(nullable = false)
+        private LocalDateTime timestamp = LocalDateTime.now();
+    }
+
+    @Entity(name = "SequenceRow")
+    @Table(name = "benchmark_sequence_rows")
+    static class SequenceRow {
+
+        @Id
+        @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "benchmark_sequence_rows_seq")
+        @SequenceGenerator(name = "benchmark_sequence_rows_seq", sequenceName = "benchmark_sequence_rows_seq", allocationSize = 50)
+        private Long id;
+
+        @Column(nullable = false)
+        private long accountId = 1;
+
+        @Column(nullable = false)
+        private String type = "CREDIT";
+
+        @Column(nullable = false)
+        private BigDecimal amount = BigDecimal.ONE;
+
+        @Column(nullable = false)
+        private LocalDateTime timestamp = LocalDateTime.now();
+    }
+}
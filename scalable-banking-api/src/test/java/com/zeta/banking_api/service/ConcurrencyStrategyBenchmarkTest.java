@@ -0,0 +1,126 @@
+package com.zeta.banking_api.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+
+import com.zeta.banking_api.entity.Account;
+import com.zeta.banking_api.exception.ConcurrentUpdateException;
+import com.zeta.banking_api.repository.AccountRepository;
+import com.zeta.banking_api.repository.TransactionRepository;
+
+// Benchmark: credits per second under each ConcurrencyStrategy, with every thread on its own account
+// (low contention) and with every thread on one account (high contention). Each strategy gets its own
+// application context, configured through banking.transactions.concurrency-strategy. Prints one line per
+// run and checks that every credit reported as done is in its account's balance and history, exactly once.
+@Tag("benchmark")
+class ConcurrencyStrategyBenchmarkTest {
+
+    private static final int THREADS = 16;
+    private static final int CREDITS_PER_THREAD = 200;
+
+    @Nested
+    @SpringBootTest(properties = "banking.transactions.concurrency-strategy=PESSIMISTIC")
+    class Pessimistic extends StrategyRun {
+    }
+
+    @Nested
+    @SpringBootTest(properties = {
+            "banking.transactions.concurrency-strategy=OPTIMISTIC",
+            "banking.transactions.optimistic.max-attempts=10"
+    })
+    class Optimistic extends StrategyRun {
+    }
+
+    @Nested
+    @SpringBootTest(properties = {
+            "banking.transactions.concurrency-strategy=ADAPTIVE",
+            "banking.transactions.optimistic.max-attempts=10"
+    })
+    class Adaptive extends StrategyRun {
+    }
+
+    abstract static class StrategyRun {
+
+        @Autowired
+        private TransactionService transactionService;
+
+        @Autowired
+        private AccountRepository accountRepository;
+
+        @Autowired
+        private TransactionRepository transactionRepository;
+
+        @Test
+        void lowContention() throws Exception {
+            run(THREADS);
+        }
+
+        @Test
+        void highContention() throws Exception {
+            run(1);
+        }
+
+        private void run(int accounts) throws Exception {
+            List<Long> accountIds = new ArrayList<>();
+            for (int a = 0; a < accounts; a++) {
+                accountIds.add(accountRepository.save(new Account(BigDecimal.ZERO)).getId());
+            }
+
+            AtomicLongArray credited = new AtomicLongArray(accounts);
+            AtomicLong gaveUp = new AtomicLong();
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            long start = System.nanoTime();
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < THREADS; t++) {
+                    int account = t % accounts;
+                    futures.add(executor.submit(() -> {
+                        for (int i = 0; i < CREDITS_PER_THREAD; i++) {
+                            try {
+                                transactionService.credit(accountIds.get(account), BigDecimal.ONE);
+                                credited.incrementAndGet(account);
+                            } catch (ConcurrentUpdateException e) {
+                                gaveUp.incrementAndGet();
+                            }
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdown();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            String name = getClass().getSimpleName();
+            long total = 0;
+            for (int a = 0; a < accounts; a++) {
+                Long accountId = accountIds.get(a);
+                BigDecimal balance = accountRepository.findById(accountId).orElseThrow().getBalance();
+                assertEquals(0, balance.compareTo(BigDecimal.valueOf(credited.get(a))), name + " lost or duplicated a credit");
+                assertEquals(credited.get(a), transactionRepository.findLatest(accountId, Limit.unlimited()).size(),
+                        name + " history does not match the credits");
+                total += credited.get(a);
+            }
+            assertEquals((long) THREADS * CREDITS_PER_THREAD, total + gaveUp.get());
+            System.out.printf("%-12s %-6s %8.0f credits/s %6d gave up%n", name, accounts == 1 ? "high" : "low",
+                    total / seconds, gaveUp.get());
+        }
+    }
+}
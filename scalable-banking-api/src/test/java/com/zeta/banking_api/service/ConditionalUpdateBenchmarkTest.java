@@ -0,0 +1,87 @@
+package com.zeta.banking_api.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.zeta.banking_api.BankingApiApplication;
+import com.zeta.banking_api.entity.Account;
+import com.zeta.banking_api.repository.AccountRepository;
+import com.zeta.rate_limiter.LatencyHistogram;
+
+// Benchmark: debits per second and p99 latency on one hot account, with SELECT ... FOR UPDATE followed by an
+// UPDATE and with the single conditional UPDATE. Starts the application once per mode, prints a table and
+// checks that the balance reflects exactly the debits that succeeded.
+@Tag("benchmark")
+class ConditionalUpdateBenchmarkTest {
+
+    private static final int THREADS = 16;
+    private static final long PHASE_MILLIS = 3_000;
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000000000");
+
+    @Test
+    void compareUpdatePaths() throws Exception {
+        System.out.printf("%-12s %12s %10s%n", "path", "debits/s", "p99 ms");
+        for (boolean conditionalUpdate : new boolean[]{false, true}) {
+            run(conditionalUpdate);
+        }
+    }
+
+    private void run(boolean conditionalUpdate) throws Exception {
+        String mode = conditionalUpdate ? "conditional" : "locking";
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BankingApiApplication.class)
+                .web(WebApplicationType.NONE)
+                // Passed as arguments so they take precedence over application.properties
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:" + mode,
+                        "--banking.transactions.conditional-update=" + conditionalUpdate)) {
+            TransactionService service = context.getBean(TransactionService.class);
+            AccountRepository accountRepository = context.getBean(AccountRepository.class);
+            Long accountId = accountRepository.save(new Account(INITIAL_BALANCE)).getId();
+
+            LatencyHistogram latency = new LatencyHistogram();
+            AtomicLong debited = new AtomicLong();
+            long start = System.nanoTime();
+            long deadline = start + PHASE_MILLIS * 1_000_000;
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < THREADS; t++) {
+                    futures.add(executor.submit(() -> {
+                        while (System.nanoTime() < deadline) {
+                            long sent = System.nanoTime();
+                            service.debit(accountId, BigDecimal.ONE);
+                            latency.record(System.nanoTime() - sent);
+                            debited.incrementAndGet();
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdown();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            BigDecimal balance = accountRepository.findById(accountId).orElseThrow().getBalance();
+            assertEquals(0, INITIAL_BALANCE.subtract(BigDecimal.valueOf(debited.get())).compareTo(balance),
+                    mode + " lost or duplicated a debit");
+            System.out.printf("%-12s %12.0f %10.1f%n", mode, debited.get() / seconds,
+                    LatencyHistogram.valueAtQuantile(latency.countsSnapshot(), 0.99) / 1e6);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.zeta.banking_api.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import com.zeta.banking_api.dto.TransactionResponse;
+import com.zeta.banking_api.entity.Account;
+import com.zeta.banking_api.exception.InsufficientFundsException;
+import com.zeta.banking_api.repository.AccountRepository;
+import com.zeta.banking_api.repository.TransactionRepository;
+
+// Tests the single-statement conditional UPDATE path: a failed UPDATE is told apart as a missing account or a
+// short balance, concurrent debits never overdraw, and every change bumps the version optimistic writers check.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "banking.transactions.conditional-update=true",
+        "banking.rate-limit.enabled=false"
+})
+class ConditionalUpdateTest {
+
+    private static final long MISSING_ACCOUNT_ID = Long.MAX_VALUE;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void missingAccountIs404AndShortBalanceIs400() {
+        Long accountId = accountRepository.save(new Account(new BigDecimal("5.00"))).getId();
+
+        assertEquals(HttpStatus.NOT_FOUND, post(MISSING_ACCOUNT_ID, "debit", "1"));
+        assertEquals(HttpStatus.NOT_FOUND, post(MISSING_ACCOUNT_ID, "credit", "1"));
+        assertEquals(HttpStatus.BAD_REQUEST, post(accountId, "debit", "10"));
+        assertEquals(HttpStatus.OK, post(accountId, "debit", "5"));
+        assertEquals(0, BigDecimal.ZERO.compareTo(balanceOf(accountId)));
+    }
+
+    @Test
+    void concurrentDebitsNeverOverdraw() throws Exception {
+        int balance = 100;
+        int threads = 16;
+        int debitsPerThread = 20;
+        Long accountId = accountRepository.save(new Account(BigDecimal.valueOf(balance))).getId();
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < debitsPerThread; i++) {
+                        try {
+                            transactionService.debit(accountId, BigDecimal.ONE);
+                            succeeded.incrementAndGet();
+                        } catch (InsufficientFundsException e) {
+                            refused.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(balance, succeeded.get(), "exactly the balance can be debited");
+        assertEquals(threads * debitsPerThread - balance, refused.get());
+        assertEquals(0, BigDecimal.ZERO.compareTo(balanceOf(accountId)), "the balance must not go negative");
+        List<TransactionResponse> history = transactionRepository.findLatest(accountId, Limit.unlimited());
+        assertEquals(balance, history.stream().filter(entry -> entry.getType().equals("DEBIT")).count(),
+                "one DEBIT row per successful debit");
+    }
+
+    @Test
+    void everyChangeBumpsTheVersion() {
+        Long accountId = accountRepository.save(new Account(new BigDecimal("10.00"))).getId();
+        long version = versionOf(accountId);
+
+        transactionService.credit(accountId, new BigDecimal("5.00"));
+        assertEquals(version + 1, versionOf(accountId), "a credit bumps the version");
+        transactionService.debit(accountId, new BigDecimal("3.00"));
+        assertEquals(version + 2, versionOf(accountId), "a debit bumps the version");
+        assertThrows(InsufficientFundsException.class, () -> transactionService.debit(accountId, new BigDecimal("100.00")));
+        assertEquals(version + 2, versionOf(accountId), "a refused debit leaves the version alone");
+        assertEquals(0, new BigDecimal("12.00").compareTo(balanceOf(accountId)));
+    }
+
+    private HttpStatus post(long accountId, String operation, String amount) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return HttpStatus.valueOf(restTemplate.postForEntity("/api/accounts/" + accountId + "/" + operation,
+                new HttpEntity<>("{\"amount\": " + amount + "}", headers), String.class).getStatusCode().value());
+    }
+
+    private BigDecimal balanceOf(Long accountId) {
+        return accountRepository.findById(accountId).orElseThrow().getBalance();
+    }
+
+    private long versionOf(Long accountId) {
+        return accountRepository.findById(accountId).orElseThrow().getVersion();
+    }
+}
@@ -0,0 +1,85 @@
+package com.zeta.banking_api.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.zeta.banking_api.BankingApiApplication;
+import com.zeta.banking_api.entity.Account;
+import com.zeta.banking_api.repository.AccountRepository;
+import com.zeta.rate_limiter.LatencyHistogram;
+
+// Benchmark: credits per second and p99 latency on one hot account, each credit committed on its own and
+// with concurrent credits coalesced into group commits. Starts the application once per mode, prints a
+// table and checks that the balance holds exactly the credits that completed.
+@Tag("benchmark")
+class CreditCoalescerBenchmarkTest {
+
+    private static final int THREADS = 64;
+    private static final long PHASE_MILLIS = 3_000;
+
+    @Test
+    void compareWithAndWithoutCoalescing() throws Exception {
+        System.out.printf("%-12s %12s %10s%n", "credits", "credits/s", "p99 ms");
+        for (boolean coalesce : new boolean[]{false, true}) {
+            run(coalesce);
+        }
+    }
+
+    private void run(boolean coalesce) throws Exception {
+        String mode = coalesce ? "coalesced" : "one-by-one";
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BankingApiApplication.class)
+                .web(WebApplicationType.NONE)
+                // Passed as arguments so they take precedence over application.properties
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:" + mode,
+                        "--banking.transactions.coalesce-credits=" + coalesce)) {
+            TransactionService service = context.getBean(TransactionService.class);
+            AccountRepository accountRepository = context.getBean(AccountRepository.class);
+            Long accountId = accountRepository.save(new Account(BigDecimal.ZERO)).getId();
+
+            LatencyHistogram latency = new LatencyHistogram();
+            AtomicLong credited = new AtomicLong();
+            long start = System.nanoTime();
+            long deadline = start + PHASE_MILLIS * 1_000_000;
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < THREADS; t++) {
+                    futures.add(executor.submit(() -> {
+                        while (System.nanoTime() < deadline) {
+                            long sent = System.nanoTime();
+                            service.credit(accountId, BigDecimal.ONE);
+                            latency.record(System.nanoTime() - sent);
+                            credited.incrementAndGet();
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdown();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            BigDecimal balance = accountRepository.findById(accountId).orElseThrow().getBalance();
+            assertEquals(0, BigDecimal.valueOf(credited.get()).compareTo(balance), mode + " lost or duplicated a credit");
+            System.out.printf("%-12s %12.0f %10.1f%n", mode, credited.get() / seconds,
+                    LatencyHistogram.valueAtQuantile(latency.countsSnapshot(), 0.99) / 1e6);
+        }
+    }
+}
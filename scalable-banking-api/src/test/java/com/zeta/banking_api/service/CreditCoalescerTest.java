@@ -0,0 +1,102 @@
+package com.zeta.banking_api.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+
+import com.zeta.banking_api.entity.Account;
+import com.zeta.banking_api.repository.AccountRepository;
+import com.zeta.banking_api.repository.TransactionRepository;
+
+// Tests group commit of credits: concurrent credits of one account all land, exactly once each, and a
+// batch that dies with an Error still completes its callers
+@SpringBootTest(properties = "banking.transactions.coalesce-credits=true")
+class CreditCoalescerTest {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Test
+    void concurrentCreditsLandExactlyOnce() throws Exception {
+        int threads = 16;
+        int creditsPerThread = 25;
+        Long accountId = accountRepository.save(new Account(BigDecimal.ZERO)).getId();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < creditsPerThread; i++) {
+                        transactionService.credit(accountId, new BigDecimal("0.01"));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        int credits = threads * creditsPerThread;
+        BigDecimal balance = accountRepository.findById(accountId).orElseThrow().getBalance();
+        assertEquals(0, new BigDecimal("0.01").multiply(BigDecimal.valueOf(credits)).compareTo(balance));
+        assertEquals(credits, transactionRepository.findLatest(accountId, Limit.unlimited()).size(), "one history row per credit");
+    }
+
+    @Test
+    void errorInAFlushFailsTheBatch() throws Exception {
+        PlatformTransactionManager failing = new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                throw new AssertionError("simulated error");
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+            }
+        };
+        CreditCoalescer coalescer = new CreditCoalescer(accountRepository, transactionRepository, failing, null, 100, 10);
+        try {
+            ExecutionException failure = assertThrows(ExecutionException.class,
+                    () -> coalescer.credit(1L, BigDecimal.ONE).get(5, TimeUnit.SECONDS),
+                    "the caller must be completed rather than left waiting");
+            assertInstanceOf(AssertionError.class, failure.getCause());
+        } finally {
+            coalescer.shutdown();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.zeta.banking_api.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import com.zeta.banking_api.entity.Account;
+import com.zeta.banking_api.filter.RateLimitFilter;
+import com.zeta.banking_api.repository.AccountRepository;
+
+// Tests idempotent execution: retries of a running request join it even when more requests are running than
+// the in-memory cache holds, finished requests are replayed after the cache has dropped them, and keys are
+// scoped per client, so two clients using the same key each get their own request.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "banking.idempotency.max-size=2",
+        "banking.rate-limit.enabled=false"
+})
+class IdempotencyServiceTest {
+
+    private static final String CLIENT = "client-a";
+    private static final String FINGERPRINT = "DEBIT|1|1";
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void runningAttemptsOutliveTheCacheBound() throws Exception {
+        int requests = 20;
+        AtomicInteger runs = new AtomicInteger();
+        List<String> keys = new ArrayList<>();
+        List<CompletableFuture<ResponseEntity<String>>> operations = new ArrayList<>();
+        List<CompletableFuture<ResponseEntity<String>>> firsts = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            String key = UUID.randomUUID().toString();
+            CompletableFuture<ResponseEntity<String>> operation = new CompletableFuture<>();
+            keys.add(key);
+            operations.add(operation);
+            firsts.add(idempotencyService.execute(CLIENT, key, FINGERPRINT, () -> {
+                runs.incrementAndGet();
+                return operation;
+            }));
+        }
+        // Ten times more running than the cache holds; a retry of each must still join the first
+        for (int i = 0; i < requests; i++) {
+            assertSame(firsts.get(i), idempotencyService.execute(CLIENT, keys.get(i), FINGERPRINT, () -> {
+                runs.incrementAndGet();
+                return CompletableFuture.completedFuture(ResponseEntity.ok("ran twice"));
+            }));
+        }
+        assertEquals(requests, runs.get());
+
+        for (int i = 0; i < requests; i++) {
+            operations.get(i).complete(ResponseEntity.ok("done " + i));
+            firsts.get(i).get(10, TimeUnit.SECONDS);
+        }
+        // Most of these are gone from the cache by now and come back from the table
+        for (int i = 0; i < requests; i++) {
+            ResponseEntity<String> replayed = idempotencyService.execute(CLIENT, keys.get(i), FINGERPRINT, () -> {
+                runs.incrementAndGet();
+                return CompletableFuture.completedFuture(ResponseEntity.ok("ran twice"));
+            }).get(10, TimeUnit.SECONDS);
+            assertEquals("done " + i, replayed.getBody());
+        }
+        assertEquals(requests, runs.get());
+    }
+
+    @Test
+    void keysAreScopedPerClient() {
+        Long accountId = accountRepository.save(new Account(new BigDecimal("100.00"))).getId();
+        String key = UUID.randomUUID().toString();
+
+        assertEquals(HttpStatus.OK, debit(accountId, "client-a", key, "1"));
+        assertEquals(HttpStatus.OK, debit(accountId, "client-a", key, "1"));
+        // Another client's request with the same key is its own request, not a reuse of client-a's key
+        assertEquals(HttpStatus.OK, debit(accountId, "client-b", key, "2"));
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, debit(accountId, "client-a", key, "2"));
+
+        BigDecimal balance = accountRepository.findById(accountId).orElseThrow().getBalance();
+        assertEquals(0, new BigDecimal("97.00").compareTo(balance), "one debit per client");
+    }
+
+    private HttpStatus debit(Long accountId, String clientId, String key, String amount) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set(RateLimitFilter.CLIENT_ID_HEADER, clientId);
+        headers.set("Idempotency-Key", key);
+        return HttpStatus.valueOf(restTemplate.postForEntity("/api/accounts/" + accountId + "/debit",
+                new HttpEntity<>("{\"amount\": " + amount + "}", headers), String.class).getStatusCode().value());
+    }
+}
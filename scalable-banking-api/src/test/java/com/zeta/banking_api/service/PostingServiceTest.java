@@ -0,0 +1,138 @@
+package com.zeta.banking_api.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+
+import com.zeta.banking_api.dto.PostingRequest;
+import com.zeta.banking_api.entity.Account;
+import com.zeta.banking_api.exception.InsufficientFundsException;
+import com.zeta.banking_api.repository.AccountRepository;
+import com.zeta.banking_api.repository.TransactionRepository;
+
+// Tests transfers and batch postings: all or nothing, the request limits, and no deadlock between
+// transfers running in opposite directions
+@SpringBootTest(properties = "banking.postings.max-per-request=" + PostingServiceTest.MAX_POSTINGS)
+class PostingServiceTest {
+
+    static final int MAX_POSTINGS = 5;
+
+    @Autowired
+    private PostingService postingService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Test
+    void batchIsRolledBackWhenADebitFailsMidway() {
+        Long a = createAccount("100.00");
+        Long b = createAccount("10.00");
+        List<PostingRequest> postings = List.of(
+                new PostingRequest(a, "CREDIT", new BigDecimal("50.00")),
+                new PostingRequest(b, "DEBIT", new BigDecimal("5.00")),
+                new PostingRequest(b, "DEBIT", new BigDecimal("10.00")),
+                new PostingRequest(a, "CREDIT", new BigDecimal("1.00")));
+
+        assertThrows(InsufficientFundsException.class, () -> postingService.post(postings));
+
+        assertBalance("100.00", a);
+        assertBalance("10.00", b);
+        assertEquals(0, historySize(a), "no history may be left behind by a rolled-back batch");
+        assertEquals(0, historySize(b), "no history may be left behind by a rolled-back batch");
+    }
+
+    @Test
+    void laterDebitCanBeCoveredByEarlierCredit() {
+        Long a = createAccount("0.00");
+        postingService.post(List.of(
+                new PostingRequest(a, "CREDIT", new BigDecimal("20.00")),
+                new PostingRequest(a, "DEBIT", new BigDecimal("15.00"))));
+        assertBalance("5.00", a);
+        assertEquals(2, historySize(a));
+    }
+
+    @Test
+    void transferToTheSameAccountIsRejected() {
+        Long a = createAccount("100.00");
+        assertThrows(IllegalArgumentException.class, () -> postingService.transfer(a, a, new BigDecimal("10.00")));
+        assertBalance("100.00", a);
+        assertEquals(0, historySize(a));
+    }
+
+    @Test
+    void batchSizeIsLimited() {
+        Long a = createAccount("0.00");
+        PostingRequest credit = new PostingRequest(a, "CREDIT", BigDecimal.ONE);
+
+        postingService.post(Collections.nCopies(MAX_POSTINGS, credit));
+        assertThrows(IllegalArgumentException.class, () -> postingService.post(Collections.nCopies(MAX_POSTINGS + 1, credit)));
+        assertThrows(IllegalArgumentException.class, () -> postingService.post(List.of()));
+        assertBalance(String.valueOf(MAX_POSTINGS), a);
+    }
+
+    @Test
+    void opposingTransfersDoNotDeadlock() throws Exception {
+        int transfersEachWay = 200;
+        Long a = createAccount("1000000.00");
+        Long b = createAccount("1000000.00");
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Long[] direction : new Long[][]{{a, b}, {b, a}}) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < transfersEachWay; i++) {
+                        postingService.transfer(direction[0], direction[1], BigDecimal.ONE);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                // A deadlock would hang here, or fail a transfer if the database detected it
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        }
+
+        assertBalance("1000000.00", a);
+        assertBalance("1000000.00", b);
+        assertEquals(2 * transfersEachWay, historySize(a));
+        assertEquals(2 * transfersEachWay, historySize(b));
+    }
+
+    private Long createAccount(String balance) {
+        return accountRepository.save(new Account(new BigDecimal(balance))).getId();
+    }
+
+    private void assertBalance(String expected, Long accountId) {
+        BigDecimal balance = accountRepository.findById(accountId).orElseThrow().getBalance();
+        assertEquals(0, new BigDecimal(expected).compareTo(balance), "balance of account " + accountId + " was " + balance);
+    }
+
+    private int historySize(Long accountId) {
+        return transactionRepository.findLatest(accountId, Limit.unlimited()).size();
+    }
+}
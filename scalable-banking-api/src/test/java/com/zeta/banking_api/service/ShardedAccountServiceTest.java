@@ -0,0 +1,227 @@
+package com.zeta.banking_api.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+
+import com.zeta.banking_api.dto.PostingRequest;
+import com.zeta.banking_api.entity.Account;
+import com.zeta.banking_api.entity.AccountSlot;
+import com.zeta.banking_api.exception.InsufficientFundsException;
+import com.zeta.banking_api.repository.AccountRepository;
+import com.zeta.banking_api.repository.AccountSlotRepository;
+import com.zeta.banking_api.repository.TransactionRepository;
+
+// Tests sharded accounts: credits land in slots, debits and transfers draw across slots, rebalancing keeps
+// the total, and concurrent credits and debits neither lose money nor overdraw. The scheduled rebalance is
+// pushed out of the way so each test decides when slots are evened out.
+@SpringBootTest(properties = "banking.sharding.rebalance-interval-millis=3600000")
+class ShardedAccountServiceTest {
+
+    private static final int SLOTS = 4;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private ShardedAccountService shardedAccountService;
+
+    @Autowired
+    private PostingService postingService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private AccountSlotRepository accountSlotRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Test
+    void creditLandsInOneSlot() {
+        Long accountId = createShardedAccount("100.00");
+
+        transactionService.credit(accountId, new BigDecimal("10.00"));
+
+        List<AccountSlot> slots = slotsOf(accountId);
+        assertEquals(1, slots.stream().filter(slot -> slot.getBalance().compareTo(new BigDecimal("25.00")) != 0).count(),
+                "exactly one slot takes the credit");
+        assertEquals(0, BigDecimal.ZERO.compareTo(rowBalanceOf(accountId)), "the account row is not touched");
+        assertBalance("110.00", accountId);
+    }
+
+    @Test
+    void debitDrawsAcrossSlots() {
+        Long accountId = createShardedAccount("100.00");
+
+        transactionService.debit(accountId, new BigDecimal("60.00"));
+
+        assertBalance("40.00", accountId);
+        assertTrue(slotsOf(accountId).stream().allMatch(slot -> slot.getBalance().signum() >= 0), "no slot may go negative");
+        assertThrows(InsufficientFundsException.class, () -> transactionService.debit(accountId, new BigDecimal("40.01")));
+        assertBalance("40.00", accountId);
+    }
+
+    @Test
+    void transferAndBatchDebitFromSlots() {
+        Long sharded = createShardedAccount("100.00");
+        Long other = accountRepository.save(new Account(BigDecimal.ZERO)).getId();
+
+        postingService.transfer(sharded, other, new BigDecimal("70.00"));
+        postingService.post(List.of(
+                new PostingRequest(sharded, "CREDIT", new BigDecimal("5.00")),
+                new PostingRequest(sharded, "DEBIT", new BigDecimal("35.00"))));
+
+        assertBalance("0.00", sharded);
+        assertBalance("70.00", other);
+        assertThrows(InsufficientFundsException.class, () -> postingService.transfer(sharded, other, BigDecimal.ONE));
+        assertEquals(3, transactionRepository.findLatest(sharded, Limit.unlimited()).size());
+    }
+
+    @Test
+    void rebalanceKeepsTheTotal() {
+        Long accountId = createShardedAccount("100.00");
+        for (int i = 0; i < 7; i++) {
+            transactionService.credit(accountId, new BigDecimal("1.01"));
+        }
+        // Lands on the account row, which the rebalance folds back into the slots
+        postingService.post(List.of(new PostingRequest(accountId, "CREDIT", new BigDecimal("3.00"))));
+
+        shardedAccountService.rebalance();
+
+        assertBalance("110.07", accountId);
+        assertEquals(0, BigDecimal.ZERO.compareTo(rowBalanceOf(accountId)));
+        List<AccountSlot> slots = slotsOf(accountId);
+        BigDecimal smallest = slots.stream().map(AccountSlot::getBalance).min(Comparator.naturalOrder()).orElseThrow();
+        BigDecimal largest = slots.stream().map(AccountSlot::getBalance).max(Comparator.naturalOrder()).orElseThrow();
+        assertTrue(largest.subtract(smallest).compareTo(new BigDecimal("0.03")) <= 0, "slots are even up to the rounding remainder");
+    }
+
+    @Test
+    void concurrentCreditsAndDebitsAddUp() throws Exception {
+        int threads = 8;
+        int operationsPerThread = 50;
+        Long accountId = createShardedAccount("100.00");
+        AtomicInteger credits = new AtomicInteger();
+        AtomicInteger debits = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                boolean credit = t % 2 == 0;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < operationsPerThread; i++) {
+                        if (credit) {
+                            transactionService.credit(accountId, new BigDecimal("1.00"));
+                            credits.incrementAndGet();
+                        } else {
+                            try {
+                                transactionService.debit(accountId, new BigDecimal("3.00"));
+                                debits.incrementAndGet();
+                            } catch (InsufficientFundsException e) {
+                                // Expected once debits outrun credits
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 10; i++) {
+                    shardedAccountService.rebalance();
+                }
+                return null;
+            }));
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        BigDecimal expected = new BigDecimal("100.00").add(BigDecimal.valueOf(credits.get()))
+                .subtract(BigDecimal.valueOf(3L * debits.get()));
+        assertBalance(expected.toPlainString(), accountId);
+        assertTrue(slotsOf(accountId).stream().allMatch(slot -> slot.getBalance().signum() >= 0), "no slot may go negative");
+        assertEquals(credits.get() + debits.get(), transactionRepository.findLatest(accountId, Limit.unlimited()).size(),
+                "one history row per applied credit or debit");
+    }
+
+    @Test
+    void debitsDuringShardingSeeTheWholeBalance() throws Exception {
+        int debitors = 8;
+        int debitsPerThread = 5;
+        for (int round = 0; round < 5; round++) {
+            Long accountId = accountRepository.save(new Account(new BigDecimal("100.00"))).getId();
+            CountDownLatch start = new CountDownLatch(1);
+
+            ExecutorService executor = Executors.newFixedThreadPool(debitors + 1);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < debitors; t++) {
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        for (int i = 0; i < debitsPerThread; i++) {
+                            // The account always covers these, so no debit may fail whichever path it takes
+                            transactionService.debit(accountId, new BigDecimal("1.00"));
+                        }
+                        return null;
+                    }));
+                }
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    shardedAccountService.shard(accountId, SLOTS);
+                    return null;
+                }));
+                start.countDown();
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdown();
+            }
+
+            assertBalance(new BigDecimal("100.00").subtract(BigDecimal.valueOf(debitors * debitsPerThread)).toPlainString(), accountId);
+        }
+    }
+
+    private Long createShardedAccount(String balance) {
+        Long accountId = accountRepository.save(new Account(new BigDecimal(balance))).getId();
+        shardedAccountService.shard(accountId, SLOTS);
+        return accountId;
+    }
+
+    private void assertBalance(String expected, Long accountId) {
+        BigDecimal balance = transactionService.getBalance(accountId);
+        assertEquals(0, new BigDecimal(expected).compareTo(balance), "balance of account " + accountId + " was " + balance);
+    }
+
+    private BigDecimal rowBalanceOf(Long accountId) {
+        return accountRepository.findById(accountId).orElseThrow().getBalance();
+    }
+
+    private List<AccountSlot> slotsOf(Long accountId) {
+        return accountSlotRepository.findAll().stream().filter(slot -> slot.getAccountId().equals(accountId)).toList();
+    }
+}
@@ -0,0 +1,175 @@
+package com.zeta.banking_api.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zeta.banking_api.dto.TransactionPage;
+import com.zeta.banking_api.dto.TransactionResponse;
+import com.zeta.banking_api.entity.Account;
+import com.zeta.banking_api.entity.Transaction;
+import com.zeta.banking_api.repository.AccountRepository;
+import com.zeta.banking_api.repository.TransactionRepository;
+
+// Tests history paging and export: following cursors returns every entry exactly once, entries sharing a
+// timestamp are ordered by id without being skipped or repeated, malformed cursors are 400, and debits show up
+// next to credits in both the paged API and the NDJSON export. The async request timeout is set to 1 ms, which
+// an export running as an async StreamingResponseBody could not finish within.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.mvc.async.request-timeout=1",
+        "banking.rate-limit.enabled=false"
+})
+class TransactionHistoryServiceTest {
+
+    @Autowired
+    private TransactionHistoryService historyService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void cursorsWalkTheWholeHistory() {
+        Account account = accountRepository.save(new Account(BigDecimal.ZERO));
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Transaction> history = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            history.add(new Transaction(account, "CREDIT", BigDecimal.valueOf(i + 1), start.plusMinutes(i)));
+        }
+        transactionRepository.saveAllInBatches(history);
+
+        List<Long> paged = pageThrough(account.getId(), 3);
+        assertEquals(ids(transactionRepository.findLatest(account.getId(), Limit.unlimited())), paged);
+        assertEquals(7, paged.size());
+    }
+
+    @Test
+    void equalTimestampsAreOrderedById() {
+        Account account = accountRepository.save(new Account(BigDecimal.ZERO));
+        LocalDateTime sameInstant = LocalDateTime.of(2024, 1, 1, 12, 0);
+        List<Transaction> history = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            history.add(new Transaction(account, "CREDIT", BigDecimal.ONE, sameInstant));
+        }
+        transactionRepository.saveAllInBatches(history);
+
+        // Every page boundary falls between two entries with the same timestamp
+        List<Long> paged = pageThrough(account.getId(), 2);
+        assertEquals(5, paged.size(), "no entry may be skipped or repeated");
+        for (int i = 1; i < paged.size(); i++) {
+            assertTrue(paged.get(i - 1) > paged.get(i), "ties must be broken by id, newest first: " + paged);
+        }
+    }
+
+    @Test
+    void invalidCursorsAreRejected() {
+        Long accountId = accountRepository.save(new Account(BigDecimal.ZERO)).getId();
+        for (String cursor : List.of("garbage", "2024-01-01T00:00_notanid", "notatime_5", "_", "12")) {
+            ResponseEntity<String> response = restTemplate.getForEntity(
+                    "/api/accounts/{id}/transactions?cursor={cursor}", String.class, accountId, cursor);
+            assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode(), "cursor " + cursor);
+        }
+        assertEquals(HttpStatus.BAD_REQUEST,
+                restTemplate.getForEntity("/api/accounts/{id}/transactions?limit=0", String.class, accountId).getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND,
+                restTemplate.getForEntity("/api/accounts/{id}/transactions", String.class, Long.MAX_VALUE).getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND,
+                restTemplate.getForEntity("/api/accounts/{id}/transactions?format=ndjson", String.class, Long.MAX_VALUE).getStatusCode());
+    }
+
+    @Test
+    void debitsAppearInPagesAndExport() throws Exception {
+        Long accountId = accountRepository.save(new Account(new BigDecimal("100.00"))).getId();
+        transactionService.credit(accountId, new BigDecimal("5.00"));
+        transactionService.debit(accountId, new BigDecimal("3.00"));
+        transactionService.debit(accountId, new BigDecimal("2.00"));
+
+        List<String> pagedTypes = new ArrayList<>();
+        for (TransactionResponse transaction : historyService.page(accountId, null, 50).getTransactions()) {
+            pagedTypes.add(transaction.getType());
+        }
+        assertEquals(List.of("DEBIT", "DEBIT", "CREDIT"), pagedTypes);
+
+        List<String> exportedTypes = new ArrayList<>();
+        for (JsonNode line : export(accountId)) {
+            exportedTypes.add(line.get("type").asText());
+        }
+        assertEquals(pagedTypes, exportedTypes);
+    }
+
+    @Test
+    void exportSpansSeveralChunks() throws Exception {
+        Account account = accountRepository.save(new Account(BigDecimal.ZERO));
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Transaction> history = new ArrayList<>();
+        for (int i = 0; i < 2_500; i++) {
+            // Pairs share a timestamp, so chunk boundaries also fall inside ties
+            history.add(new Transaction(account, i % 3 == 0 ? "DEBIT" : "CREDIT", BigDecimal.ONE, start.plusSeconds(i / 2)));
+        }
+        transactionRepository.saveAllInBatches(history);
+
+        List<Long> exported = new ArrayList<>();
+        for (JsonNode line : export(account.getId())) {
+            exported.add(line.get("id").asLong());
+        }
+        assertEquals(ids(transactionRepository.findLatest(account.getId(), Limit.unlimited())), exported);
+    }
+
+    private List<Long> pageThrough(Long accountId, int limit) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            TransactionPage page = historyService.page(accountId, cursor, limit);
+            assertTrue(page.getTransactions().size() <= limit);
+            ids.addAll(ids(page.getTransactions()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertNull(cursor);
+        return ids;
+    }
+
+    private List<JsonNode> export(Long accountId) throws Exception {
+        ResponseEntity<String> response = restTemplate.getForEntity("/api/accounts/{id}/transactions?format=ndjson", String.class, accountId);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("application/x-ndjson", response.getHeaders().getContentType().toString());
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : response.getBody().split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+
+    private static List<Long> ids(List<TransactionResponse> entries) {
+        List<Long> ids = new ArrayList<>();
+        for (TransactionResponse entry : entries) {
+            ids.add(entry.getId());
+        }
+        return ids;
+    }
+}